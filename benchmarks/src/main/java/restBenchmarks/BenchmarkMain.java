@@ -0,0 +1,29 @@
+package restBenchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of <code>benchmarks.jar</code>: the standard JMH command line
+ * with the GC profiler always enabled, so every result comes with
+ * <code>gc.alloc.rate.norm</code> (bytes allocated per operation).
+ *
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar                       # everything
+ * java -jar benchmarks/target/benchmarks.jar -p fixture=PIM_50K    # one fixture
+ * java -jar benchmarks/target/benchmarks.jar -rf json -rff out.json
+ * </pre>
+ */
+public class BenchmarkMain {
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		Options options = new OptionsBuilder().parent(new CommandLineOptions(args)).addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,175 @@
+package restBenchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.restassured.path.json.JsonPath;
+import rest.Column;
+import rest.ColumnarData;
+import rest.ExtractionPlan;
+import rest.JsonFieldExtractor;
+
+/**
+ * Compares the ways a response body can be turned into the columns of a
+ * {@link rest.CustomResponse}, on every {@link ResponseFixture}.
+ *
+ * <p>
+ * Every benchmark starts from the raw body bytes and ends with the same
+ * {@link ColumnarData}, so the numbers include decoding and tree building
+ * where a strategy needs them:
+ * <ul>
+ * <li>{@link #jsonPath()} - RestAssured JsonPath, <code>getList("data")</code>
+ * for lists and <code>getMap("data")</code> for objects; the
+ * <code>api.extractor=jsonpath</code> fallback of {@link ExtractionPlan}</li>
+ * <li>{@link #jacksonDatabind()} - Jackson data binding to maps, as
+ * <code>response.as(Map.class)</code> would</li>
+ * <li>{@link #jacksonTree()} - Jackson <code>readTree</code></li>
+ * <li>{@link #jacksonStreaming()} - {@link JsonFieldExtractor}, the default
+ * path</li>
+ * </ul>
+ * Run through {@link BenchmarkMain} to get the allocation rate per operation
+ * from the GC profiler alongside the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class ExtractionBenchmark {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	@Param
+	public ResponseFixture fixture;
+
+	private byte[] body;
+	private String[] fields;
+	private boolean list;
+	private JsonFieldExtractor extractor;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		ExtractionPlan plan = fixture.plan();
+		body = fixture.body();
+		fields = plan.fields();
+		list = plan.shape() == ExtractionPlan.DataShape.LIST;
+		extractor = new JsonFieldExtractor(fields);
+	}
+
+	@Benchmark
+	public ColumnarData jsonPath() {
+		JsonPath jsonPath = new JsonPath(new String(body, StandardCharsets.UTF_8));
+		List<Map<String, Object>> rows;
+		if (list) {
+			rows = jsonPath.getList("data");
+		} else {
+			rows = new ArrayList<>();
+			rows.add(jsonPath.getMap("data"));
+		}
+		return fromRows(rows);
+	}
+
+	@Benchmark
+	public ColumnarData jacksonDatabind() throws IOException {
+		Map<String, Object> page = MAPPER.readValue(body, new TypeReference<Map<String, Object>>() {
+		});
+		List<Map<String, Object>> rows;
+		if (list) {
+			@SuppressWarnings("unchecked")
+			List<Map<String, Object>> data = (List<Map<String, Object>>) page.get("data");
+			rows = data;
+		} else {
+			@SuppressWarnings("unchecked")
+			Map<String, Object> data = (Map<String, Object>) page.get("data");
+			rows = new ArrayList<>();
+			rows.add(data);
+		}
+		return fromRows(rows);
+	}
+
+	@Benchmark
+	public ColumnarData jacksonTree() throws IOException {
+		JsonNode data = MAPPER.readTree(body).get("data");
+		List<JsonNode> rows = new ArrayList<>();
+		if (list) {
+			for (JsonNode row : data) {
+				rows.add(row);
+			}
+		} else {
+			rows.add(data);
+		}
+
+		Column[] columns = new Column[fields.length];
+		for (int i = 0; i < fields.length; i++) {
+			Column.Builder column = Column.builder(rows.size());
+			for (JsonNode row : rows) {
+				column.add(toValue(row.get(fields[i])));
+			}
+			columns[i] = column.build();
+		}
+		return new ColumnarData(fields, columns);
+	}
+
+	@Benchmark
+	public ColumnarData jacksonStreaming() throws IOException {
+		return extractor.extract(body);
+	}
+
+	private ColumnarData fromRows(List<Map<String, Object>> rows) {
+		Column[] columns = new Column[fields.length];
+		for (int i = 0; i < fields.length; i++) {
+			Column.Builder column = Column.builder(rows.size());
+			for (Map<String, Object> row : rows) {
+				column.add(row.get(fields[i]));
+			}
+			columns[i] = column.build();
+		}
+		return new ColumnarData(fields, columns);
+	}
+
+	// Scalars are unwrapped like the other strategies do; containers stay as
+	// tree nodes, which is what a tree-based extractor would hand out.
+	private static Object toValue(JsonNode node) {
+		if (node == null || node.isNull()) {
+			return null;
+		}
+		if (node.isInt()) {
+			return node.intValue();
+		}
+		if (node.isLong()) {
+			return node.longValue();
+		}
+		if (node.isBoolean()) {
+			return node.booleanValue();
+		}
+		if (node.isTextual()) {
+			return node.textValue();
+		}
+		if (node.isNumber()) {
+			return node.numberValue();
+		}
+		return node;
+	}
+}
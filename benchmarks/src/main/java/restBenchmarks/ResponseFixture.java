@@ -0,0 +1,110 @@
+package restBenchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import rest.ExtractionPlan;
+
+/**
+ * Recorded OrangeHRM response bodies used by the benchmarks.
+ *
+ * <p>
+ * The small fixtures are loaded as recorded from
+ * <code>src/main/resources/fixtures</code>. The larger employee lists are
+ * generated from the recorded PIM page by repeating its rows with fresh
+ * employee numbers and ids, so their field mix and nesting match the real
+ * payload.
+ */
+public enum ResponseFixture {
+
+	EMP_STATUS_SMALL(ExtractionPlan.EMP_STATUS, "employment-statuses.json", 0),
+
+	PIM_SMALL(ExtractionPlan.PIM_EMPLOYEES, "pim-employees.json", 0),
+
+	PIM_MEDIUM(ExtractionPlan.PIM_EMPLOYEES, "pim-employees.json", 500),
+
+	PIM_50K(ExtractionPlan.PIM_EMPLOYEES, "pim-employees.json", 50_000),
+
+	SUBUNIT_TREE(ExtractionPlan.ADMIN_SUBUNIT, "subunits.json", 0),
+
+	LDAP_CONFIG(ExtractionPlan.LDAP_CONFIG, "ldap-config.json", 0);
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private final ExtractionPlan plan;
+	private final String resource;
+	private final int rows;
+
+	ResponseFixture(ExtractionPlan plan, String resource, int rows) {
+		this.plan = plan;
+		this.resource = resource;
+		this.rows = rows;
+	}
+
+	/**
+	 * @return the plan that extracts this response in {@link rest.ApiUtil}.
+	 */
+	public ExtractionPlan plan() {
+		return plan;
+	}
+
+	/**
+	 * @return the response body as UTF-8 bytes.
+	 */
+	public byte[] body() {
+		byte[] recorded = load("/fixtures/" + resource);
+		return rows > 0 ? repeatRows(recorded, rows) : recorded;
+	}
+
+	private static byte[] load(String path) {
+		try (InputStream in = ResponseFixture.class.getResourceAsStream(path)) {
+			if (in == null) {
+				throw new IllegalStateException("Fixture not found: " + path);
+			}
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = in.read(buffer)) > 0) {
+				out.write(buffer, 0, read);
+			}
+			return out.toByteArray();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static byte[] repeatRows(byte[] recorded, int count) {
+		try {
+			Map<String, Object> page = MAPPER.readValue(recorded, new TypeReference<Map<String, Object>>() {
+			});
+			@SuppressWarnings("unchecked")
+			List<Map<String, Object>> template = (List<Map<String, Object>>) page.get("data");
+
+			List<Map<String, Object>> data = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				Map<String, Object> row = new LinkedHashMap<>(template.get(i % template.size()));
+				row.put("empNumber", i + 1);
+				row.put("employeeId", String.format("%05d", i + 1));
+				row.put("lastName", row.get("lastName") + "-" + (i / template.size()));
+				data.add(row);
+			}
+
+			Map<String, Object> meta = new LinkedHashMap<>();
+			meta.put("total", count);
+			page.put("data", data);
+			page.put("meta", meta);
+			return MAPPER.writeValueAsBytes(page);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -6,41 +6,125 @@ import org.testng.ITestResult;
 
 import com.aventstack.extentreports.ExtentReports;
 import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
 
+import coreUtilities.testutils.ResultPublisher;
 import coreUtilities.utils.ExtentReportManager;
 import static coreUtilities.testutils.TestUtils.businessTestFile;
-import static coreUtilities.testutils.TestUtils.currentTest;
 import static coreUtilities.testutils.TestUtils.yakshaAssert;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
+import restConfig.ConfigManager;
+import restMetrics.ApiMetrics;
+import restMetrics.EndpointMetrics;
+import restMetrics.Phase;
+import restMetrics.PrometheusExporter;
 
 
+
+/**
+ * Reports every test to Extent and to the results endpoint without a global
+ * lock.
+ *
+ * <p>
+ * The callbacks run on the TestNG worker threads. The Extent calls of a test
+ * are collected in a buffer kept as an attribute of its {@link ITestResult},
+ * so the start and end callbacks of one test may even run on different
+ * threads, and the whole buffer is handed to a single reporter thread when the
+ * test ends: one queue operation per test and no callback ever waits for
+ * another thread. The reporter thread is the only one touching
+ * {@link ExtentReports}, so the report needs no synchronisation either.
+ * {@link #onFinish} waits, for at most
+ * <code>listener.reportTimeoutSeconds</code> (default 60), until the reporter
+ * has applied everything handed off before it flushes the report.
+ */
 public class TestListener implements ITestListener
 {
 
 	//Extent Report Declarations
     private static ExtentReports extent = ExtentReportManager.createInstance();
-    private static ThreadLocal<ExtentTest> test = new ThreadLocal<ExtentTest>();
+
+    // Only read and written by the reporter thread.
+    private static final Map<ITestResult, ExtentTest> tests = new IdentityHashMap<>();
+    private static final String BUFFER = TestListener.class.getName() + ".events";
+    private static final LinkedBlockingQueue<List<Consumer<Map<ITestResult, ExtentTest>>>> handoff =
+            new LinkedBlockingQueue<>();
+    private static final long DEFAULT_REPORT_TIMEOUT_SECONDS = 60;
+    private static final Thread reporter = new Thread(TestListener::report, "extent-reporter");
+
+    static {
+        reporter.setDaemon(true);
+        reporter.start();
+    }
  
-    public synchronized void onStart(ITestContext context) {
+    public void onStart(ITestContext context) {
         System.out.println("Extent Reports Version 3 Test Suite started!");
+        PrometheusExporter.startConfiguredServer();
     }
  
-    public synchronized void onFinish(ITestContext context) {
+    public void onFinish(ITestContext context) {
         System.out.println(("Extent Reports Version 3  Test Suite is ending!"));
-        extent.flush();
+        CountDownLatch reported = new CountDownLatch(1);
+        List<Consumer<Map<ITestResult, ExtentTest>>> finish = new ArrayList<>();
+        finish.add(tests -> {
+            logApiTimings();
+            extent.flush();
+            reported.countDown();
+        });
+        handoff.add(finish);
+        long timeoutSeconds = reportTimeoutSeconds();
+        try {
+            if (!reported.await(timeoutSeconds, TimeUnit.SECONDS)) {
+                System.out.println("⚠️ Extent report not flushed within " + timeoutSeconds + "s"
+                        + (reporter.isAlive() ? "" : ", the reporter thread has died"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        PrometheusExporter.writeConfiguredFile();
+        ResultPublisher.flush();
     }
  
-    public synchronized void onTestStart(ITestResult result) {
+    // Read when the suite finishes rather than when the class loads: a bad
+    // value must not keep TestNG from loading the listener and its report.
+    private static long reportTimeoutSeconds() {
+        String value = ConfigManager.getProperty("listener.reportTimeoutSeconds");
+        if (value == null || value.trim().isEmpty()) {
+            return DEFAULT_REPORT_TIMEOUT_SECONDS;
+        }
+        try {
+            long seconds = Long.parseLong(value.trim());
+            if (seconds > 0) {
+                return seconds;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below.
+        }
+        System.out.println("⚠️ Invalid listener.reportTimeoutSeconds '" + value
+                + "', expected a positive number; using " + DEFAULT_REPORT_TIMEOUT_SECONDS);
+        return DEFAULT_REPORT_TIMEOUT_SECONDS;
+    }
+
+    public void onTestStart(ITestResult result) {
         System.out.println((result.getMethod().getMethodName() + " started!"));
-        ExtentTest extentTest = extent.createTest(result.getMethod().getMethodName(),result.getMethod().getDescription());
-        test.set(extentTest);
+        String name = result.getMethod().getMethodName();
+        String description = result.getMethod().getDescription();
+        events(result).add(tests -> tests.put(result, extent.createTest(name, description)));
     }
  
-    public synchronized void onTestSuccess(ITestResult result) {
+    public void onTestSuccess(ITestResult result) {
        System.out.println((result.getMethod().getMethodName() + " passed!"));
-        test.get().pass("Test passed");
+        end(result, test -> test.pass("Test passed"));
         try {
             yakshaAssert(result.getMethod().getMethodName(), true, businessTestFile);
         } catch (IOException e) {
@@ -49,7 +133,7 @@ public class TestListener implements ITestListener
         }
     }
  
-    public synchronized void onTestFailure(ITestResult result) {
+    public void onTestFailure(ITestResult result) {
         System.out.println((result.getMethod().getMethodName() + " failed!"));
         System.out.println(result.getThrowable().toString());
         try {
@@ -58,10 +142,11 @@ public class TestListener implements ITestListener
             // TODO Auto-generated catch block
             e.printStackTrace();
         }
-        test.get().fail(result.getThrowable());
+        Throwable throwable = result.getThrowable();
+        end(result, test -> test.fail(throwable));
     }
  
-    public synchronized void onTestSkipped(ITestResult result) {
+    public void onTestSkipped(ITestResult result) {
         System.out.println((result.getMethod().getMethodName() + " skipped!"));
         try {
             yakshaAssert(result.getMethod().getMethodName(), false, businessTestFile);
@@ -69,11 +154,94 @@ public class TestListener implements ITestListener
             // TODO Auto-generated catch block
             e.printStackTrace();
         }
-        test.get().skip(result.getThrowable());
+        Throwable throwable = result.getThrowable();
+        end(result, test -> test.skip(throwable));
     }
  
     public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
         System.out.println(("onTestFailedButWithinSuccessPercentage for " + result.getMethod().getMethodName()));
     }	
 
+    // Appends the final status of a test to its buffer and hands the buffer to
+    // the reporter. A test skipped before it started gets its entry created
+    // here.
+    private void end(ITestResult result, Consumer<ExtentTest> status) {
+        String name = result.getMethod().getMethodName();
+        String description = result.getMethod().getDescription();
+        List<Consumer<Map<ITestResult, ExtentTest>>> events = events(result);
+        result.removeAttribute(BUFFER);
+        events.add(tests -> {
+            ExtentTest test = tests.remove(result);
+            status.accept(test != null ? test : extent.createTest(name, description));
+        });
+        handoff.add(events);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Consumer<Map<ITestResult, ExtentTest>>> events(ITestResult result) {
+        Object events = result.getAttribute(BUFFER);
+        if (events == null) {
+            events = new ArrayList<Consumer<Map<ITestResult, ExtentTest>>>();
+            result.setAttribute(BUFFER, events);
+        }
+        return (List<Consumer<Map<ITestResult, ExtentTest>>>) events;
+    }
+
+    private static void report() {
+        while (true) {
+            List<Consumer<Map<ITestResult, ExtentTest>>> events;
+            try {
+                events = handoff.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            for (Consumer<Map<ITestResult, ExtentTest>> event : events) {
+                try {
+                    event.accept(tests);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    // Adds one report entry with the mean time per phase of every API endpoint
+    // called during the suite, so a slow endpoint can be attributed to the
+    // server, the network or the client-side parsing.
+    private static void logApiTimings() {
+        List<EndpointMetrics> endpoints = new ArrayList<>();
+        for (EndpointMetrics metrics : ApiMetrics.endpoints()) {
+            if (metrics.getTimedCalls() > 0) {
+                endpoints.add(metrics);
+            }
+        }
+        if (endpoints.isEmpty()) {
+            return;
+        }
+        endpoints.sort(Comparator.comparing(EndpointMetrics::getName));
+
+        Phase[] phases = Phase.values();
+        String[][] table = new String[endpoints.size() + 1][phases.length + 4];
+        table[0][0] = "endpoint";
+        table[0][1] = "calls";
+        table[0][2] = "new conn";
+        for (int i = 0; i < phases.length; i++) {
+            table[0][i + 3] = phases[i].label() + " ms";
+        }
+        table[0][phases.length + 3] = "p99 ms";
+        for (int row = 1; row <= endpoints.size(); row++) {
+            EndpointMetrics metrics = endpoints.get(row - 1);
+            table[row][0] = metrics.getName();
+            table[row][1] = String.valueOf(metrics.getTimedCalls());
+            table[row][2] = String.valueOf(metrics.getNewConnections());
+            for (int i = 0; i < phases.length; i++) {
+                table[row][i + 3] = String.format("%.2f", metrics.getMeanPhaseNanos(phases[i]) / 1_000_000.0);
+            }
+            table[row][phases.length + 3] = String.format("%.2f",
+                    metrics.getLatency().getValueAtPercentile(99) / 1_000_000.0);
+        }
+        extent.createTest("API timing breakdown", "Mean time per phase of each API endpoint")
+                .info(MarkupHelper.createTable(table));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,353 @@
+package coreUtilities.testutils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of test results that have not been acknowledged by the
+ * results endpoint yet.
+ *
+ * <p>
+ * Every result is appended as an entry record before it is posted, and an
+ * acknowledgement record is appended once the endpoint accepted it. Both are
+ * plain appends, so recording a result costs one write into the page cache;
+ * {@link #sync()} forces the file to disk and is called once per batch, before
+ * the batch is posted, rather than once per record. Each record carries a
+ * CRC32, so a record torn by a crash is recognised and ignored.
+ *
+ * <p>
+ * On {@link #open(Path)} the journal is read back, the entries without an
+ * acknowledgement are kept as {@link #pending()} and the file is rewritten with
+ * only those, so it never grows beyond the results that are still unsent.
+ * Delivery is at least once: a result whose acknowledgement was lost is posted
+ * again. A journal is locked by the process that has it open, so two JVMs never
+ * append to or compact the same file.
+ */
+public final class ResultJournal implements Closeable {
+
+	private static final byte ENTRY = 1;
+	private static final byte ACK = 2;
+	private static final int HEADER_LENGTH = 1 + 8 + 4;
+	private static final int RECORD_OVERHEAD = HEADER_LENGTH + 4;
+
+	private final Path file;
+	private final FileChannel channel;
+	private final FileChannel lockChannel;
+	private final List<Entry> pending;
+	private long nextId;
+
+	private ResultJournal(Path file, FileChannel channel, FileChannel lockChannel, List<Entry> pending,
+			long nextId) {
+		this.file = file;
+		this.channel = channel;
+		this.lockChannel = lockChannel;
+		this.pending = pending;
+		this.nextId = nextId;
+	}
+
+	/**
+	 * Opens or creates a journal and compacts it to its unacknowledged entries.
+	 *
+	 * <p>
+	 * The journal is locked for as long as it is open. If another process
+	 * already holds it, e.g. a parallel surefire fork, a journal of this
+	 * process's own is created next to it instead; whichever process next gets
+	 * the shared journal takes over the unsent entries of such journals once
+	 * their owners have exited.
+	 *
+	 * @param file - the journal file; missing directories are created.
+	 * @return the open journal
+	 * @throws IOException if the journal cannot be read or written
+	 */
+	public static ResultJournal open(Path file) throws IOException {
+		Path directory = file.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+
+		ResultJournal journal = tryOpen(file, true);
+		if (journal == null) {
+			Path own = Files.createTempFile(directory, baseName(file) + "-", ".journal");
+			journal = tryOpen(own, false);
+			if (journal == null) {
+				throw new IOException(own + " is locked by another process");
+			}
+		}
+		return journal;
+	}
+
+	// Returns null if another process holds the lock of the file.
+	private static ResultJournal tryOpen(Path file, boolean adoptOthers) throws IOException {
+		Path directory = file.toAbsolutePath().getParent();
+		FileChannel lockChannel = FileChannel.open(lockFile(file), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE);
+		FileLock lock = tryLock(lockChannel);
+		if (lock == null) {
+			lockChannel.close();
+			return null;
+		}
+
+		try {
+			List<Entry> unacknowledged = new ArrayList<>(read(file));
+			List<Path> adopted = new ArrayList<>();
+			if (adoptOthers) {
+				adoptOrphans(file, unacknowledged, adopted);
+			}
+
+			// Rewrite the unacknowledged entries into a fresh file, then swap it in.
+			// Ids are renumbered, since adopted entries come from other journals.
+			List<Entry> pending = new ArrayList<>(unacknowledged.size());
+			Path compacted = Files.createTempFile(directory, "results", ".compacting");
+			try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.WRITE)) {
+				for (Entry entry : unacknowledged) {
+					Entry renumbered = new Entry(pending.size() + 1, entry.json, entry.context);
+					write(out, ENTRY, renumbered.id, encode(renumbered));
+					pending.add(renumbered);
+				}
+				out.force(true);
+			}
+			Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			for (Path orphan : adopted) {
+				Files.deleteIfExists(orphan);
+				Files.deleteIfExists(lockFile(orphan));
+			}
+
+			FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+			return new ResultJournal(file, channel, lockChannel, pending, pending.size() + 1);
+		} catch (IOException | RuntimeException e) {
+			lockChannel.close();
+			throw e;
+		}
+	}
+
+	// Collects the unsent entries of per-process journals whose owners have
+	// exited, i.e. whose locks are free.
+	private static void adoptOrphans(Path file, List<Entry> unacknowledged, List<Path> adopted)
+			throws IOException {
+		String prefix = baseName(file) + "-";
+		try (DirectoryStream<Path> siblings = Files.newDirectoryStream(file.toAbsolutePath().getParent(),
+				prefix + "*.journal")) {
+			for (Path orphan : siblings) {
+				try (FileChannel lockChannel = FileChannel.open(lockFile(orphan), StandardOpenOption.CREATE,
+						StandardOpenOption.WRITE)) {
+					FileLock lock = tryLock(lockChannel);
+					if (lock == null) {
+						continue;
+					}
+					unacknowledged.addAll(read(orphan));
+					adopted.add(orphan);
+					lock.release();
+				}
+			}
+		}
+	}
+
+	// Reads the entries without an acknowledgement, in the order they were
+	// recorded. Reading stops at the first torn or corrupt record; a record
+	// that is intact but cannot be decoded is skipped.
+	private static List<Entry> read(Path file) throws IOException {
+		Map<Long, Entry> unacknowledged = new LinkedHashMap<>();
+		if (!Files.exists(file)) {
+			return new ArrayList<>();
+		}
+		try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+			long position = 0;
+			while (true) {
+				header.clear();
+				if (!read(in, header, position)) {
+					break;
+				}
+				header.flip();
+				byte type = header.get();
+				long id = header.getLong();
+				int length = header.getInt();
+				if ((type != ENTRY && type != ACK) || length < 0
+						|| position + RECORD_OVERHEAD + length > in.size()) {
+					break;
+				}
+				ByteBuffer payload = ByteBuffer.allocate(length + 4);
+				if (!read(in, payload, position + HEADER_LENGTH)) {
+					break;
+				}
+				payload.flip();
+				byte[] bytes = new byte[length];
+				payload.get(bytes);
+				if (payload.getInt() != crc(type, id, bytes)) {
+					break;
+				}
+				position += RECORD_OVERHEAD + length;
+				if (type == ACK) {
+					unacknowledged.remove(id);
+					continue;
+				}
+				try {
+					unacknowledged.put(id, decode(id, bytes));
+				} catch (IOException e) {
+					System.out.println(TestUtils.RED_BOLD_BRIGHT + "⚠️ Skipping unreadable result in " + file + ": "
+							+ e.getMessage() + TestUtils.TEXT_RESET);
+				}
+			}
+		}
+		return new ArrayList<>(unacknowledged.values());
+	}
+
+	private static FileLock tryLock(FileChannel channel) throws IOException {
+		try {
+			return channel.tryLock();
+		} catch (OverlappingFileLockException e) {
+			// Held by another journal of this JVM.
+			return null;
+		}
+	}
+
+	private static Path lockFile(Path file) {
+		return file.resolveSibling(file.getFileName() + ".lock");
+	}
+
+	private static String baseName(Path file) {
+		String name = file.getFileName().toString();
+		int dot = name.lastIndexOf('.');
+		return dot > 0 ? name.substring(0, dot) : name;
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * @return the entries that were not acknowledged when the journal was
+	 *         opened, in the order they were recorded.
+	 */
+	public List<Entry> pending() {
+		return new ArrayList<>(pending);
+	}
+
+	/**
+	 * Records a result that is about to be posted.
+	 *
+	 * @param json    - the serialised {@link TestResults}.
+	 * @param context - shown in the warning if posting fails.
+	 * @return the recorded entry
+	 * @throws IOException if the record cannot be written
+	 */
+	public synchronized Entry append(byte[] json, String context) throws IOException {
+		Entry entry = new Entry(nextId++, json, context);
+		write(channel, ENTRY, entry.id, encode(entry));
+		return entry;
+	}
+
+	/**
+	 * Records that the endpoint accepted the given entries.
+	 *
+	 * @param entries - the delivered entries.
+	 * @throws IOException if the records cannot be written
+	 */
+	public synchronized void acknowledge(Collection<Entry> entries) throws IOException {
+		for (Entry entry : entries) {
+			write(channel, ACK, entry.id, new byte[0]);
+		}
+	}
+
+	/**
+	 * Forces every record written so far to disk.
+	 *
+	 * @throws IOException if the file cannot be synced
+	 */
+	public void sync() throws IOException {
+		channel.force(false);
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		try {
+			channel.close();
+		} finally {
+			// Closing the channel releases the lock.
+			lockChannel.close();
+		}
+	}
+
+	private static void write(FileChannel channel, byte type, long id, byte[] payload) throws IOException {
+		ByteBuffer record = ByteBuffer.allocate(RECORD_OVERHEAD + payload.length);
+		record.put(type).putLong(id).putInt(payload.length).put(payload).putInt(crc(type, id, payload));
+		record.flip();
+		while (record.hasRemaining()) {
+			channel.write(record);
+		}
+	}
+
+	private static boolean read(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int crc(byte type, long id, byte[] payload) {
+		CRC32 crc = new CRC32();
+		crc.update(ByteBuffer.allocate(9).put(type).putLong(id).array());
+		crc.update(payload);
+		return (int) crc.getValue();
+	}
+
+	private static byte[] encode(Entry entry) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(entry.json.length + 64);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeUTF(entry.context != null ? entry.context : "");
+		out.writeInt(entry.json.length);
+		out.write(entry.json);
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	private static Entry decode(long id, byte[] payload) throws IOException {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+			String context = in.readUTF();
+			byte[] json = new byte[in.readInt()];
+			in.readFully(json);
+			return new Entry(id, json, context);
+		} catch (EOFException e) {
+			throw new IOException("Corrupt journal entry " + id, e);
+		}
+	}
+
+	/**
+	 * One recorded result.
+	 */
+	public static final class Entry {
+		final long id;
+		final byte[] json;
+		final String context;
+
+		Entry(long id, byte[] json, String context) {
+			this.id = id;
+			this.json = json;
+			this.context = context;
+		}
+
+		public long getId() {
+			return id;
+		}
+	}
+}
@@ -0,0 +1,331 @@
+package coreUtilities.testutils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import coreUtilities.testutils.ResultJournal.Entry;
+import restConfig.ConfigManager;
+
+/**
+ * Publishes test results to the results endpoint from a background thread.
+ *
+ * <p>
+ * {@link TestUtils#yakshaAssert} only serialises its result and hands it to
+ * {@link #submit}, which never blocks, so a test thread does not wait for the
+ * network. One daemon thread drains the queue in batches and posts the results
+ * back to back; the response of every post is read completely so that
+ * {@link HttpURLConnection} keeps the connection alive and the whole batch
+ * goes over one TCP (and TLS) connection. The endpoint takes one result
+ * document per request, so a batch is a run of requests, not one combined
+ * document.
+ *
+ * <p>
+ * Every result is recorded in a {@link ResultJournal} before it is posted and
+ * marked as sent once the endpoint accepted it, so a slow or unreachable
+ * endpoint never loses results: failed posts are retried in the background
+ * every <code>results.spool.retrySeconds</code>, and whatever is still unsent
+ * when the JVM exits is posted by the next run.
+ *
+ * <p>
+ * {@link #flush(long, TimeUnit)} waits until everything submitted so far has
+ * been posted or has failed; the listener calls it when the suite finishes,
+ * and a shutdown hook calls it before the JVM exits.
+ *
+ * <p>
+ * Configuration properties (see {@link ConfigManager}):
+ * <ul>
+ * <li><code>results.publisher.batchSize</code> - results taken from the queue
+ * per batch (default 64)</li>
+ * <li><code>results.publisher.gzip</code> - send the body with
+ * <code>Content-Encoding: gzip</code>; only for endpoints that accept it
+ * (default false)</li>
+ * <li><code>results.publisher.flushSeconds</code> - how long a flush waits
+ * (default 30)</li>
+ * <li><code>results.spool.file</code> - the journal (default
+ * <code>results-spool/results.journal</code> under <code>user.dir</code>)</li>
+ * <li><code>results.spool.retrySeconds</code> - interval between retries of
+ * failed posts (default 15)</li>
+ * </ul>
+ */
+public final class ResultPublisher {
+
+	private static final int BATCH_SIZE = (int) positive("results.publisher.batchSize", 64);
+	private static final boolean GZIP = Boolean
+			.parseBoolean(ConfigManager.getProperty("results.publisher.gzip", "false").trim());
+	private static final long FLUSH_SECONDS = positive("results.publisher.flushSeconds", 30);
+	private static final long RETRY_SECONDS = positive("results.spool.retrySeconds", 15);
+
+	private static final LinkedBlockingQueue<Entry> QUEUE = new LinkedBlockingQueue<>();
+	private static final ConcurrentLinkedQueue<Entry> FAILED = new ConcurrentLinkedQueue<>();
+	private static final Object LOCK = new Object();
+	private static final ResultJournal JOURNAL = openJournal();
+	private static long submitted;
+	private static long completed;
+
+	static {
+		if (JOURNAL != null) {
+			List<Entry> unsent = JOURNAL.pending();
+			if (!unsent.isEmpty()) {
+				System.out.println("Replaying " + unsent.size() + " unsent test results from " + JOURNAL.getFile());
+				for (Entry entry : unsent) {
+					enqueue(entry);
+				}
+			}
+		}
+
+		Thread worker = new Thread(ResultPublisher::run, "result-publisher");
+		worker.setDaemon(true);
+		worker.start();
+
+		ScheduledExecutorService drainer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "result-spool-drainer");
+			thread.setDaemon(true);
+			return thread;
+		});
+		drainer.scheduleWithFixedDelay(ResultPublisher::retryFailed, RETRY_SECONDS, RETRY_SECONDS, TimeUnit.SECONDS);
+
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			retryFailed();
+			flush(FLUSH_SECONDS, TimeUnit.SECONDS);
+		}, "result-publisher-flush"));
+	}
+
+	private ResultPublisher() {
+	}
+
+	// A bad value must not fail the class initialisation, which would turn
+	// every later TestUtils.yakshaAssert into a NoClassDefFoundError.
+	private static long positive(String key, long defaultValue) {
+		String value = ConfigManager.getProperty(key);
+		if (value == null || value.trim().isEmpty()) {
+			return defaultValue;
+		}
+		try {
+			long parsed = Long.parseLong(value.trim());
+			if (parsed > 0 && parsed <= Integer.MAX_VALUE) {
+				return parsed;
+			}
+		} catch (NumberFormatException e) {
+			// Reported below.
+		}
+		System.out.println("⚠️ Invalid " + key + " '" + value + "', expected a positive number; using "
+				+ defaultValue);
+		return defaultValue;
+	}
+
+	/**
+	 * Queues one result document for posting and returns immediately.
+	 *
+	 * @param json    - the serialised {@link TestResults}.
+	 * @param context - shown in the warning if the post fails, e.g. host and
+	 *                attempt id.
+	 */
+	public static void submit(String json, String context) {
+		submit(json.getBytes(StandardCharsets.UTF_8), context);
+	}
+
+	/**
+	 * Queues one UTF-8 result document for posting and returns immediately.
+	 *
+	 * @param bytes   - the serialised {@link TestResults}, e.g. from
+	 *                {@link TestUtils#asJsonBytes(Object)}; not copied, so it
+	 *                must not be changed afterwards.
+	 * @param context - shown in the warning if the post fails, e.g. host and
+	 *                attempt id.
+	 */
+	public static void submit(byte[] bytes, String context) {
+		Entry entry = null;
+		if (JOURNAL != null) {
+			try {
+				entry = JOURNAL.append(bytes, context);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		enqueue(entry != null ? entry : new Entry(-1, bytes, context));
+	}
+
+	/**
+	 * Waits for the configured <code>results.publisher.flushSeconds</code> until
+	 * every submitted result has been posted.
+	 *
+	 * @return {@code true} if everything was posted in time
+	 */
+	public static boolean flush() {
+		return flush(FLUSH_SECONDS, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Waits until every result submitted before this call has been posted (or
+	 * has failed and been reported).
+	 *
+	 * @param timeout - maximum time to wait.
+	 * @param unit    - the unit of {@code timeout}.
+	 * @return {@code true} if everything was posted in time
+	 */
+	public static boolean flush(long timeout, TimeUnit unit) {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		synchronized (LOCK) {
+			long target = submitted;
+			while (completed < target) {
+				long remaining = deadline - System.nanoTime();
+				if (remaining <= 0) {
+					System.out.println(TestUtils.RED_BOLD_BRIGHT + "⚠️ " + (target - completed)
+							+ " test results were not pushed in time" + TestUtils.TEXT_RESET);
+					return false;
+				}
+				try {
+					TimeUnit.NANOSECONDS.timedWait(LOCK, remaining);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	private static void enqueue(Entry entry) {
+		synchronized (LOCK) {
+			submitted++;
+		}
+		QUEUE.add(entry);
+	}
+
+	// The journal is synced once per batch, before any of it is posted, and
+	// the acknowledgements of the delivered results are appended afterwards.
+	private static void run() {
+		List<Entry> batch = new ArrayList<>(BATCH_SIZE);
+		List<Entry> delivered = new ArrayList<>(BATCH_SIZE);
+		while (true) {
+			try {
+				batch.add(QUEUE.take());
+			} catch (InterruptedException e) {
+				return;
+			}
+			QUEUE.drainTo(batch, BATCH_SIZE - 1);
+			sync();
+			for (Entry entry : batch) {
+				if (post(entry)) {
+					delivered.add(entry);
+				} else if (JOURNAL != null && entry.id >= 0) {
+					FAILED.add(entry);
+				}
+			}
+			acknowledge(delivered);
+			synchronized (LOCK) {
+				completed += batch.size();
+				LOCK.notifyAll();
+			}
+			batch.clear();
+			delivered.clear();
+		}
+	}
+
+	private static void retryFailed() {
+		Entry entry;
+		while ((entry = FAILED.poll()) != null) {
+			enqueue(entry);
+		}
+	}
+
+	private static ResultJournal openJournal() {
+		String configured = ConfigManager.getProperty("results.spool.file");
+		try {
+			return ResultJournal.open(configured != null ? Paths.get(configured)
+					: Paths.get(System.getProperty("user.dir"), "results-spool", "results.journal"));
+		} catch (IOException | RuntimeException e) {
+			System.out.println(TestUtils.RED_BOLD_BRIGHT + "⚠️ Test results are not spooled to disk: " + e
+					+ TestUtils.TEXT_RESET);
+			return null;
+		}
+	}
+
+	private static void sync() {
+		if (JOURNAL != null) {
+			try {
+				JOURNAL.sync();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	private static void acknowledge(List<Entry> delivered) {
+		if (JOURNAL != null && !delivered.isEmpty()) {
+			try {
+				JOURNAL.acknowledge(delivered);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	private static boolean post(Entry result) {
+		try {
+			byte[] body = GZIP ? gzip(result.json) : result.json;
+			HttpURLConnection conn = (HttpURLConnection) new URL(TestUtils.URL).openConnection();
+			conn.setDoOutput(true);
+			conn.setRequestMethod("POST");
+			conn.setConnectTimeout(10_000);
+			conn.setReadTimeout(30_000);
+			conn.setRequestProperty("Content-Type", "application/json");
+			if (GZIP) {
+				conn.setRequestProperty("Content-Encoding", "gzip");
+			}
+			conn.setFixedLengthStreamingMode(body.length);
+			try (OutputStream os = conn.getOutputStream()) {
+				os.write(body);
+			}
+
+			int responseCode = conn.getResponseCode();
+			boolean accepted = responseCode == HttpURLConnection.HTTP_OK
+					|| responseCode == HttpURLConnection.HTTP_CREATED;
+			if (!accepted) {
+				System.out.println(TestUtils.RED_BOLD_BRIGHT + "⚠️ Unable to push test cases,please try again! ["
+						+ responseCode + "|" + result.context + "]" + TestUtils.TEXT_RESET);
+			}
+			// Reading the response to the end returns the connection to the
+			// keep-alive cache instead of closing it.
+			drain(responseCode < 400 ? conn.getInputStream() : conn.getErrorStream());
+			return accepted;
+		} catch (IOException | RuntimeException e) {
+			e.printStackTrace();
+			return false;
+		}
+	}
+
+	private static void drain(InputStream in) throws IOException {
+		if (in == null) {
+			return;
+		}
+		try (InputStream stream = in) {
+			byte[] buffer = new byte[4096];
+			while (stream.read(buffer) >= 0) {
+				// discard
+			}
+		}
+	}
+
+	private static byte[] gzip(byte[] body) throws IOException {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+		try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+			out.write(body);
+		}
+		return compressed.toByteArray();
+	}
+}
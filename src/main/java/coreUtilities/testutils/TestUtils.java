@@ -2,19 +2,20 @@ package coreUtilities.testutils;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.MalformedURLException;
-import java.net.URL;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Stream;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import restJson.JsonCodec;
 
 // boiler-plate code
 
@@ -28,9 +29,10 @@ public class TestUtils {
 
 	public static String testResult;
 
-	public static int total;
-	public static int passed;
-	public static int failed;
+	// Updated concurrently by parallel test threads.
+	public static final LongAdder total = new LongAdder();
+	public static final LongAdder passed = new LongAdder();
+	public static final LongAdder failed = new LongAdder();
 
 	public static File businessTestFile;
 	public static File boundaryTestFile;
@@ -41,11 +43,13 @@ public class TestUtils {
 	public static String customData;
 	public static final String URL = "https://compiler.techademy.com/v1/mfa-results/push";
 
-	static {
-		total = 0;
-		passed = 0;
-		failed = 0;
+	// Resolved once; see JsonCodec.
+	private static final ObjectWriter RESULTS_WRITER = JsonCodec.writerFor(TestResults.class);
+	private static final ObjectWriter CASE_RESULTS_WRITER = JsonCodec
+			.writerFor(new TypeReference<Map<String, TestCaseResultDto>>() {
+			});
 
+	static {
 		testResult = "";
 
 		businessTestFile = new File("./output_revised.txt");
@@ -75,11 +79,13 @@ public class TestUtils {
 		TestResults testResults = new TestResults();
 		Map<String, TestCaseResultDto> testCaseResults = new HashMap<String, TestCaseResultDto>();
 
-		customData = "";
+		// Kept in a local so that parallel calls cannot see each other's data.
+		String customData = "";
 		try {
 			customData = readData("../custom.ih");
 		} catch (Exception e) {
 		}
+		TestUtils.customData = customData;
 
 		String resultStatus = "Failed";
 		int resultScore = 0;
@@ -105,7 +111,7 @@ public class TestUtils {
 		String AttemptId = System.getenv("ATTEMPT_ID");
 		String filePath = TestUtils.class.getProtectionDomain().getCodeSource().getLocation().getPath();
 
-		testResults.setTestCaseResults(asJsonString(testCaseResults));
+		testResults.setTestCaseResults(asJsonString(CASE_RESULTS_WRITER, testCaseResults));
 		testResults.setCustomData(customData);
 		testResults.setHostName(hostName);
 		testResults.setAttemptId(AttemptId);
@@ -116,66 +122,33 @@ public class TestUtils {
 			length = customData.length();
 		}
 
-		try {
-
-			URL url = new URL(URL);
-			HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-			conn.setDoOutput(true);
-			conn.setRequestMethod("POST");
-			conn.setRequestProperty("Content-Type", "application/json");
-
-			// String input = "{\"qty\":100,\"name\":\"iPad 4\"}";
-			String input = asJsonString(testResults);
-			OutputStream os = conn.getOutputStream();
-			os.write(input.getBytes());
-			os.flush();
-			os.close();
-
-			int responseCode = conn.getResponseCode();
-			if (!(responseCode == HttpURLConnection.HTTP_OK || responseCode == HttpURLConnection.HTTP_CREATED)) {
-				System.out.println(RED_BOLD_BRIGHT + "⚠️ Unable to push test cases,please try again! [" + responseCode
-						+ "|" + hostName + "|" + AttemptId + "|" + length + "]" + TEXT_RESET);
-			}
-
-			// BufferedReader br = new BufferedReader(new
-			// InputStreamReader((conn.getInputStream())));
-
-			// // String output;
-			// // while ((output = br.readLine()) != null) {
-			// // System.out.println(output);
-			// // }
-
-			conn.disconnect();
-
-		} catch (MalformedURLException e) {
-
-			e.printStackTrace();
-
-		} catch (IOException e) {
-
-			e.printStackTrace();
-
-		}
+		// Posted by a background thread, so the test thread never waits for the
+		// results endpoint; see ResultPublisher.
+		ResultPublisher.submit(asJsonBytes(testResults), hostName + "|" + AttemptId + "|" + length);
 
-		total++;
+		total.increment();
 		String[] r = testName.split("(?=\\p{Upper})");
-		System.out.print("\n" + BLUE_BOLD_BRIGHT + "=>");
+		// Built first and printed with one call, so the lines of parallel tests
+		// do not interleave.
+		StringBuilder line = new StringBuilder();
+		line.append("\n" + BLUE_BOLD_BRIGHT + "=>");
 
-		System.out.print(YELLOW_BOLD_BRIGHT + "Test For : ");
+		line.append(YELLOW_BOLD_BRIGHT + "Test For : ");
 
 		for (int i = 1; i < r.length; i++) {
-			System.out.print(YELLOW_BOLD_BRIGHT + r[i] + " ");
+			line.append(YELLOW_BOLD_BRIGHT + r[i] + " ");
 
 		}
-		System.out.print(" : ");
+		line.append(" : ");
 
 		if (result.toString().equals("true")) {
-			System.out.println(GREEN_BOLD_BRIGHT + "PASSED" + TEXT_RESET);
-			passed++;
+			line.append(GREEN_BOLD_BRIGHT + "PASSED" + TEXT_RESET);
+			passed.increment();
 		} else {
-			System.out.println(RED_BOLD_BRIGHT + "FAILED" + TEXT_RESET);
-			failed++;
+			line.append(RED_BOLD_BRIGHT + "FAILED" + TEXT_RESET);
+			failed.increment();
 		}
+		System.out.println(line);
 	}
 
 	public static void testReport() {
@@ -192,10 +165,24 @@ public class TestUtils {
 
 	// convert object into JSON
 	public static String asJsonString(Object obj) {
-		ObjectMapper mapper = new ObjectMapper();
+		return asJsonString(writerFor(obj), obj);
+	}
+
+	// convert object into UTF-8 JSON without building a String first
+	public static byte[] asJsonBytes(Object obj) {
+		try {
+			return JsonCodec.toBytes(writerFor(obj), obj);
+		} catch (UncheckedIOException e) {
+
+			e.printStackTrace();
+		}
+		return new byte[0];
+	}
+
+	private static String asJsonString(ObjectWriter writer, Object obj) {
 		String jsonString = "";
 		try {
-			jsonString = mapper.writeValueAsString(obj);
+			jsonString = writer.writeValueAsString(obj);
 //			System.out.println("jsonString");
 //			System.out.println(jsonString);
 		} catch (JsonProcessingException e) {
@@ -206,4 +193,11 @@ public class TestUtils {
 
 	}
 
+	private static ObjectWriter writerFor(Object obj) {
+		if (obj instanceof TestResults) {
+			return RESULTS_WRITER;
+		}
+		return JsonCodec.writerFor(obj != null ? obj.getClass() : Object.class);
+	}
+
 }
\ No newline at end of file
@@ -19,7 +19,9 @@ import org.json.simple.parser.JSONParser;
 import com.codoid.products.fillo.Connection;
 import com.codoid.products.fillo.Fillo;
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import restJson.JsonCodec;
 
 public class FileOperations {
 	public JSONParser jsonParser;
@@ -28,6 +30,10 @@ public class FileOperations {
 	public Connection connection;
 	public Properties properties;
 
+	private static final ObjectReader STRING_MAP_READER = JsonCodec
+			.readerFor(new TypeReference<Map<String, String>>() {
+			});
+
 	/**
 	 * This method is useful to read the json file based on the Filename
 	 * It'll return the json object as {@link Map}
@@ -37,10 +43,9 @@ public class FileOperations {
 	 * @throws Exception
 	 */
 	public Map<String, String> readJson(String jsonFilePath) {
-        ObjectMapper objectMapper = new ObjectMapper();
         try {
             // Read the JSON file and convert it to a Map<String, String>
-            return objectMapper.readValue(new File(jsonFilePath), new TypeReference<Map<String, String>>() {});
+            return STRING_MAP_READER.readValue(new File(jsonFilePath));
         } catch (IOException e) {
             e.printStackTrace();
             throw new RuntimeException("Failed to read JSON file: " + jsonFilePath, e);
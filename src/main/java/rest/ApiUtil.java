@@ -1,79 +1,230 @@
 package rest;
 
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
-import java.util.Properties;
+import java.util.concurrent.Executor;
 
 import io.restassured.RestAssured;
-import io.restassured.path.json.JsonPath;
+import io.restassured.http.Method;
 import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
+import restConfig.ConfigManager;
+import restJson.JsonCodec;
 
 public class ApiUtil {
-	private static String BASE_URL;
-	Properties prop;
+	private BodyRetention bodyRetention = BodyRetention.defaultPolicy();
 
 	/**
-	 * Retrieves the base URL from the configuration properties file.
+	 * Retrieves the base URL from the configuration.
 	 *
 	 * <p>
-	 * This method loads the properties from the file located at
-	 * <code>{user.dir}/src/main/resources/config.properties</code> and extracts the
-	 * value associated with the key <code>base.url</code>. The value is stored in
-	 * the static variable <code>BASE_URL</code> and returned.
+	 * The value of the key <code>base.url</code> is read from the current
+	 * {@link ConfigManager} snapshot, which is loaded once and reloaded only when
+	 * the configuration changes, so this call does no file I/O.
 	 *
-	 * @return the base URL string if successfully read from the properties file;
-	 *         {@code null} if an I/O error occurs while reading the file.
+	 * @return the base URL string; {@code null} if it is not configured.
 	 */
 	public String getBaseUrl() {
-		prop = new Properties();
-		try (FileInputStream fis = new FileInputStream(
-				System.getProperty("user.dir") + "\\src\\main\\resources\\config.properties")) {
-			prop.load(fis);
-			BASE_URL = prop.getProperty("base.url");
-			return BASE_URL;
-		} catch (IOException e) {
-			e.printStackTrace();
-			return null;
-		}
+		return ConfigManager.getProperty("base.url");
 	}
 
 	/**
-	 * Retrieves the username from the configuration properties file.
+	 * Retrieves the username from the configuration.
 	 *
 	 * <p>
-	 * This method reads the properties from the file located at
-	 * <code>{user.dir}/src/main/resources/config.properties</code> and returns the
-	 * value associated with the key <code>username</code>.
+	 * Returns the value associated with the key <code>username</code> in the
+	 * current {@link ConfigManager} snapshot.
 	 *
-	 * @return the username as a {@code String} if found in the properties file;
-	 *         {@code null} if an I/O error occurs while reading the file.
+	 * @return the username as a {@code String}; {@code null} if it is not
+	 *         configured.
 	 */
 	public String getUsername() {
-		prop = new Properties();
-		try (FileInputStream fis = new FileInputStream(
-				System.getProperty("user.dir") + "\\src\\main\\resources\\config.properties")) {
-			prop.load(fis);
-			return prop.getProperty("username");
-		} catch (IOException e) {
-			e.printStackTrace();
-			return null;
-		}
+		return ConfigManager.getProperty("username");
 	}
 
 	public String getPassword() {
-		prop = new Properties();
-		try (FileInputStream fis = new FileInputStream(
-				System.getProperty("user.dir") + "\\src\\main\\resources\\config.properties")) {
-			prop.load(fis);
-			return prop.getProperty("password");
-		} catch (IOException e) {
-			e.printStackTrace();
-			return null;
+		return ConfigManager.getProperty("password");
+	}
+
+	/**
+	 * Sets how long the {@link CustomResponse} objects returned by this instance
+	 * keep the full RestAssured response after extraction. Defaults to the
+	 * <code>api.bodyRetention</code> configuration property, or
+	 * {@link BodyRetention#FULL}.
+	 *
+	 * @param bodyRetention - the {@link BodyRetention} policy to apply.
+	 */
+	public void setBodyRetention(BodyRetention bodyRetention) {
+		this.bodyRetention = bodyRetention;
+	}
+
+	public BodyRetention getBodyRetention() {
+		return bodyRetention;
+	}
+
+	/**
+	 * Returns a non-blocking view of this class whose calls run on the default
+	 * async executor (virtual threads on JDK 21+, a cached daemon pool otherwise).
+	 *
+	 * @return an {@link AsyncApiUtil} delegating to this instance
+	 */
+	public AsyncApiUtil async() {
+		return new AsyncApiUtil(this, AsyncApiUtil.defaultExecutor());
+	}
+
+	/**
+	 * Returns a non-blocking view of this class whose calls run on the given
+	 * executor.
+	 *
+	 * @param executor - the {@link Executor} the requests are submitted to.
+	 * @return an {@link AsyncApiUtil} delegating to this instance
+	 */
+	public AsyncApiUtil async(Executor executor) {
+		return new AsyncApiUtil(this, executor);
+	}
+
+	/**
+	 * Sends the request described by an {@link ExtractionPlan} and extracts the
+	 * plan's fields into a {@link CustomResponse}.
+	 *
+	 * <p>
+	 * This is the path of {@link PageIterator} and {@link PageFetcher} and the
+	 * way to call an endpoint that only exists as a registered plan; the
+	 * endpoint-specific methods below build their own request.
+	 *
+	 * <p>
+	 * Like every method of this class, a 401 on a cookie handed out by the
+	 * default {@link SessionStore} is taken as a session that expired during the
+	 * run: the cookie is renewed with {@link SessionStore#refresh(String)} and
+	 * the call is sent once more.
+	 *
+	 * @param plan        - the extraction plan supplying the HTTP verb and the
+	 *                    fields to extract.
+	 * @param endpoint    - The specific API endpoint to hit (relative to the base
+	 *                    URL).
+	 * @param cookieValue - The session cookie value to authenticate the request.
+	 * @param body        - Optional request body (can be null).
+	 *
+	 * @return CustomResponse - the response populated according to the plan.
+	 */
+	public CustomResponse execute(ExtractionPlan plan, String endpoint, String cookieValue, Object body) {
+		RequestTiming.begin();
+		Response response = send(plan.method(), endpoint, cookieValue, body);
+		response = renewExpiredSession(response, plan.method(), endpoint, cookieValue, body);
+
+		return plan.toCustomResponse(response, bodyRetention);
+	}
+
+	// A session of the default SessionStore that expired mid-run is renewed
+	// once, by whichever thread sees the 401 first, and the call repeated. The
+	// rejected attempt and the login are timed as the renewal phase.
+	private Response renewExpiredSession(Response response, Method method, String endpoint, String cookieValue,
+			Object body) {
+		SessionStore store = SessionStore.existingDefault();
+		if (response.getStatusCode() != 401 || store == null || !store.issued(cookieValue)) {
+			return response;
+		}
+		String renewed = store.refresh(cookieValue);
+		RequestTiming.renewed();
+		return send(method, endpoint, renewed, body);
+	}
+
+	private Response send(Method method, String endpoint, String cookieValue, Object body) {
+		RequestSpecification request = RestAssured.given().spec(ConnectionPool.baseSpec()).cookie("orangehrm",
+				cookieValue);
+
+		if (body != null) {
+			request.body(jsonBody(body));
 		}
+
+		return request.request(method, getBaseUrl() + endpoint).then().extract().response();
+	}
+
+	/**
+	 * Returns a lazy iterator over every page of a list endpoint, fetched with
+	 * <code>limit</code>/<code>offset</code> and prefetched in the background
+	 * (see {@link PageIterator}). The raw response of a page is released once its
+	 * columns are extracted, unless its status is not 2xx.
+	 *
+	 * @param plan        - a list-shaped extraction plan, e.g.
+	 *                    {@link ExtractionPlan#PIM_EMPLOYEES}.
+	 * @param endpoint    - The specific API endpoint to hit (relative to the base
+	 *                    URL).
+	 * @param cookieValue - The session cookie value to authenticate the request.
+	 * @param pageSize    - rows per page.
+	 *
+	 * @return PageIterator - the pages in order; also available as a
+	 *         {@link PageIterator#stream()} or {@link PageIterator#rows()}.
+	 */
+	public PageIterator pages(ExtractionPlan plan, String endpoint, String cookieValue, int pageSize) {
+		ApiUtil pageFetcher = new ApiUtil();
+		pageFetcher.setBodyRetention(
+				bodyRetention == BodyRetention.FULL ? BodyRetention.ON_FAILURE : bodyRetention);
+		return new PageIterator(pageFetcher, plan, endpoint, cookieValue, pageSize, PageIterator.defaultPrefetch(),
+				AsyncApiUtil.defaultExecutor());
+	}
+
+	/**
+	 * Pages through all PIM employees instead of only the server's default page
+	 * returned by {@link #GetPimEmp(String, String, Map)}.
+	 *
+	 * @param endpoint    - The PIM employees endpoint (relative to the base URL),
+	 *                    optionally with filters such as
+	 *                    <code>includeEmployees</code>.
+	 * @param cookieValue - The session cookie value to authenticate the request.
+	 *
+	 * @return PageIterator - the employee pages in order, with the page size
+	 *         configured by <code>api.paging.pageSize</code>.
+	 */
+	public PageIterator GetPimEmpPages(String endpoint, String cookieValue) {
+		return pages(ExtractionPlan.PIM_EMPLOYEES, endpoint, cookieValue, PageIterator.defaultPageSize());
+	}
+
+	/**
+	 * Fetches every page of a list endpoint, reading <code>meta.total</code> from
+	 * the first page and the remaining pages concurrently (see
+	 * {@link PageFetcher}), and merges them in order into one response.
+	 *
+	 * @param plan        - a list-shaped extraction plan.
+	 * @param endpoint    - The specific API endpoint to hit (relative to the base
+	 *                    URL).
+	 * @param cookieValue - The session cookie value to authenticate the request.
+	 * @param pageSize    - rows per page.
+	 *
+	 * @return CustomResponse - the status and response of the first page with the
+	 *         columns of all pages; or the first page that failed.
+	 */
+	public CustomResponse fetchAll(ExtractionPlan plan, String endpoint, String cookieValue, int pageSize) {
+		ApiUtil pageFetcher = new ApiUtil();
+		pageFetcher.setBodyRetention(BodyRetention.FULL);
+		CustomResponse all = new PageFetcher(pageFetcher, PageFetcher.defaultParallelism(),
+				AsyncApiUtil.defaultExecutor()).fetchAll(plan, endpoint, cookieValue, pageSize);
+		all.applyRetention(bodyRetention);
+		return all;
+	}
+
+	/**
+	 * All PIM employees in one response; see
+	 * {@link #fetchAll(ExtractionPlan, String, String, int)}.
+	 */
+	public CustomResponse GetPimEmpAll(String endpoint, String cookieValue) {
+		return fetchAll(ExtractionPlan.PIM_EMPLOYEES, endpoint, cookieValue, PageIterator.defaultPageSize());
+	}
+
+	/**
+	 * All defined reports in one response, keeping the sort parameters of the
+	 * endpoint; see {@link #fetchAll(ExtractionPlan, String, String, int)}.
+	 */
+	public CustomResponse GetReportASCAll(String endpoint, String cookieValue) {
+		return fetchAll(ExtractionPlan.REPORTS_DEFINED, endpoint, cookieValue, PageIterator.defaultPageSize());
+	}
+
+	/**
+	 * All job titles in one response; see
+	 * {@link #fetchAll(ExtractionPlan, String, String, int)}.
+	 */
+	public CustomResponse GetJobTitleAll(String endpoint, String cookieValue) {
+		return fetchAll(ExtractionPlan.JOB_TITLE, endpoint, cookieValue, PageIterator.defaultPageSize());
 	}
 
 	/**
@@ -100,34 +251,18 @@ public class ApiUtil {
 	 */
 
 	public CustomResponse GetEmpStatus(String endpoint, String cookieValue, Map<String, String> body) {
-		RequestSpecification request = RestAssured.given().cookie("orangehrm", cookieValue).header("Content-Type",
-				"application/json");
+		RequestTiming.begin();
+		RequestSpecification request = RestAssured.given().spec(ConnectionPool.baseSpec()).cookie("orangehrm",
+				cookieValue);
 
 		if (body != null) {
-			request.body(body);
+			request.body(jsonBody(body));
 		}
 
-		Response response = request.get(BASE_URL + endpoint).then().extract().response();
-
-		int statusCode = response.getStatusCode();
-		String status = response.getStatusLine();
+		Response response = request.get(getBaseUrl() + endpoint).then().extract().response();
+		response = renewExpiredSession(response, Method.GET, endpoint, cookieValue, body);
 
-		List<Object> ids = new ArrayList<>();
-		List<Object> names = new ArrayList<>();
-
-		JsonPath jsonPath = response.jsonPath();
-		List<Map<String, Object>> data = jsonPath.getList("data");
-
-		if (data != null) {
-			for (Map<String, Object> holiday : data) {
-				ids.add(holiday.get("id"));
-				names.add(holiday.get("name"));
-			}
-		} else {
-			System.out.println("⚠️ 'data' field is null in response. Status code: " + statusCode);
-		}
-
-		return new CustomResponse(response, statusCode, status, ids, names);
+		return ExtractionPlan.EMP_STATUS.toCustomResponse(response, bodyRetention);
 	}
 
 	/**
@@ -153,34 +288,18 @@ public class ApiUtil {
 	 *         IDs and titles from the response "data" array.
 	 */
 	public CustomResponse GetJobTitle(String endpoint, String cookieValue, Map<String, String> body) {
-		RequestSpecification request = RestAssured.given().cookie("orangehrm", cookieValue).header("Content-Type",
-				"application/json");
+		RequestTiming.begin();
+		RequestSpecification request = RestAssured.given().spec(ConnectionPool.baseSpec()).cookie("orangehrm",
+				cookieValue);
 
 		if (body != null) {
-			request.body(body);
+			request.body(jsonBody(body));
 		}
 
-		Response response = request.get(BASE_URL + endpoint).then().extract().response();
-
-		int statusCode = response.getStatusCode();
-		String status = response.getStatusLine();
-
-		List<Object> ids = new ArrayList<>();
-		List<Object> titles = new ArrayList<>();
-
-		JsonPath jsonPath = response.jsonPath();
-		List<Map<String, Object>> data = jsonPath.getList("data");
+		Response response = request.get(getBaseUrl() + endpoint).then().extract().response();
+		response = renewExpiredSession(response, Method.GET, endpoint, cookieValue, body);
 
-		if (data != null) {
-			for (Map<String, Object> holiday : data) {
-				ids.add(holiday.get("id"));
-				titles.add(holiday.get("title"));
-			}
-		} else {
-			System.out.println("⚠️ 'data' field is null in response. Status code: " + statusCode);
-		}
-
-		return new CustomResponse(response, statusCode, status, ids, titles);
+		return ExtractionPlan.JOB_TITLE.toCustomResponse(response, bodyRetention);
 	}
 
 	/**
@@ -208,44 +327,18 @@ public class ApiUtil {
 	 *         left, and right values.
 	 */
 	public CustomResponse GetAdminSubunit(String endpoint, String cookieValue, Map<String, String> body) {
-		RequestSpecification request = RestAssured.given().cookie("orangehrm", cookieValue).header("Content-Type",
-				"application/json");
+		RequestTiming.begin();
+		RequestSpecification request = RestAssured.given().spec(ConnectionPool.baseSpec()).cookie("orangehrm",
+				cookieValue);
 
 		if (body != null) {
-			request.body(body);
+			request.body(jsonBody(body));
 		}
 
-		Response response = request.get(BASE_URL + endpoint).then().extract().response();
-
-		int statusCode = response.getStatusCode();
-		String status = response.getStatusLine();
-
-		List<Object> ids = new ArrayList<>();
-		List<Object> names = new ArrayList<>();
-		List<Object> unitIds = new ArrayList<>();
-		List<Object> descriptions = new ArrayList<>();
-		List<Object> level = new ArrayList<>();
-		List<Object> left = new ArrayList<>();
-		List<Object> right = new ArrayList<>();
-
-		JsonPath jsonPath = response.jsonPath();
-		List<Map<String, Object>> data = jsonPath.getList("data");
-
-		if (data != null) {
-			for (Map<String, Object> holiday : data) {
-				ids.add(holiday.get("id"));
-				names.add(holiday.get("title"));
-				unitIds.add(holiday.get("unitId"));
-				descriptions.add(holiday.get("description"));
-				level.add(holiday.get("level"));
-				left.add(holiday.get("left"));
-				right.add(holiday.get("right"));
-			}
-		} else {
-			System.out.println("⚠️ 'data' field is null in response. Status code: " + statusCode);
-		}
+		Response response = request.get(getBaseUrl() + endpoint).then().extract().response();
+		response = renewExpiredSession(response, Method.GET, endpoint, cookieValue, body);
 
-		return new CustomResponse(response, statusCode, status, ids, names, unitIds, descriptions, level, left, right);
+		return ExtractionPlan.ADMIN_SUBUNIT.toCustomResponse(response, bodyRetention);
 	}
 
 	/**
@@ -274,38 +367,18 @@ public class ApiUtil {
 	 *         array.
 	 */
 	public CustomResponse GetPimEmp(String endpoint, String cookieValue, Map<String, String> body) {
-		RequestSpecification request = RestAssured.given().cookie("orangehrm", cookieValue).header("Content-Type",
-				"application/json");
+		RequestTiming.begin();
+		RequestSpecification request = RestAssured.given().spec(ConnectionPool.baseSpec()).cookie("orangehrm",
+				cookieValue);
 
 		if (body != null) {
-			request.body(body);
+			request.body(jsonBody(body));
 		}
 
-		Response response = request.get(BASE_URL + endpoint).then().extract().response();
-
-		int statusCode = response.getStatusCode();
-		String status = response.getStatusLine();
-
-		List<Object> employeeNumbers = new ArrayList<>();
-		List<Object> lastNames = new ArrayList<>();
-		List<Object> firstNames = new ArrayList<>();
-		List<Object> employeeId = new ArrayList<>();
-
-		JsonPath jsonPath = response.jsonPath();
-		List<Map<String, Object>> data = jsonPath.getList("data");
+		Response response = request.get(getBaseUrl() + endpoint).then().extract().response();
+		response = renewExpiredSession(response, Method.GET, endpoint, cookieValue, body);
 
-		if (data != null) {
-			for (Map<String, Object> holiday : data) {
-				employeeNumbers.add(holiday.get("empNumber"));
-				lastNames.add(holiday.get("lastName"));
-				firstNames.add(holiday.get("firstName"));
-				employeeId.add(holiday.get("employeeId"));
-			}
-		} else {
-			System.out.println("⚠️ 'data' field is null in response. Status code: " + statusCode);
-		}
-
-		return new CustomResponse(response, statusCode, status, employeeNumbers, lastNames, firstNames, employeeId);
+		return ExtractionPlan.PIM_EMPLOYEES.toCustomResponse(response, bodyRetention);
 	}
 
 	/**
@@ -332,34 +405,18 @@ public class ApiUtil {
 	 *         extracted from the response "data" array.
 	 */
 	public CustomResponse GetReportASC(String endpoint, String cookieValue, Map<String, String> body) {
-		RequestSpecification request = RestAssured.given().cookie("orangehrm", cookieValue).header("Content-Type",
-				"application/json");
+		RequestTiming.begin();
+		RequestSpecification request = RestAssured.given().spec(ConnectionPool.baseSpec()).cookie("orangehrm",
+				cookieValue);
 
 		if (body != null) {
-			request.body(body);
+			request.body(jsonBody(body));
 		}
 
-		Response response = request.get(BASE_URL + endpoint).then().extract().response();
-
-		int statusCode = response.getStatusCode();
-		String status = response.getStatusLine();
-
-		List<Object> ids = new ArrayList<>();
-		List<Object> names = new ArrayList<>();
-
-		JsonPath jsonPath = response.jsonPath();
-		List<Map<String, Object>> data = jsonPath.getList("data");
-
-		if (data != null) {
-			for (Map<String, Object> holiday : data) {
-				ids.add(holiday.get("id"));
-				names.add(holiday.get("name"));
-			}
-		} else {
-			System.out.println("⚠️ 'data' field is null in response. Status code: " + statusCode);
-		}
+		Response response = request.get(getBaseUrl() + endpoint).then().extract().response();
+		response = renewExpiredSession(response, Method.GET, endpoint, cookieValue, body);
 
-		return new CustomResponse(response, statusCode, status, ids, names);
+		return ExtractionPlan.REPORTS_DEFINED.toCustomResponse(response, bodyRetention);
 	}
 
 	/**
@@ -388,38 +445,18 @@ public class ApiUtil {
 	 *         "data" array.
 	 */
 	public CustomResponse GetLeaveEligibility(String endpoint, String cookieValue, Map<String, String> body) {
-		RequestSpecification request = RestAssured.given().cookie("orangehrm", cookieValue).header("Content-Type",
-				"application/json");
+		RequestTiming.begin();
+		RequestSpecification request = RestAssured.given().spec(ConnectionPool.baseSpec()).cookie("orangehrm",
+				cookieValue);
 
 		if (body != null) {
-			request.body(body);
+			request.body(jsonBody(body));
 		}
 
-		Response response = request.get(BASE_URL + endpoint).then().extract().response();
-
-		int statusCode = response.getStatusCode();
-		String status = response.getStatusLine();
-
-		List<Object> ids = new ArrayList<>();
-		List<Object> names = new ArrayList<>();
-		List<Object> isDeleted = new ArrayList<>();
-		List<Object> isSituational = new ArrayList<>();
-
-		JsonPath jsonPath = response.jsonPath();
-		List<Map<String, Object>> data = jsonPath.getList("data");
+		Response response = request.get(getBaseUrl() + endpoint).then().extract().response();
+		response = renewExpiredSession(response, Method.GET, endpoint, cookieValue, body);
 
-		if (data != null) {
-			for (Map<String, Object> holiday : data) {
-				ids.add(holiday.get("id"));
-				names.add(holiday.get("name"));
-				isDeleted.add(holiday.get("deleted"));
-				isSituational.add(holiday.get("situational"));
-			}
-		} else {
-			System.out.println("⚠️ 'data' field is null in response. Status code: " + statusCode);
-		}
-
-		return new CustomResponse(response, statusCode, status, ids, names, isDeleted, isSituational);
+		return ExtractionPlan.LEAVE_ELIGIBILITY.toCustomResponse(response, bodyRetention);
 	}
 
 	/**
@@ -450,54 +487,18 @@ public class ApiUtil {
 	 */
 	public CustomResponse PutAdminConfig(String endpoint, String cookieValue, String body) {
 
-		RequestSpecification request = RestAssured.given().cookie("orangehrm", cookieValue).header("Content-Type",
-				"application/json");
+		RequestTiming.begin();
+		RequestSpecification request = RestAssured.given().spec(ConnectionPool.baseSpec()).cookie("orangehrm",
+				cookieValue);
 
 		if (body != null) {
 			request.body(body);
 		}
 
-		Response response = request.put(BASE_URL + endpoint).then().extract().response();
-
-		int statusCode = response.getStatusCode();
-		String status = response.getStatusLine();
-
-		List<Object> enable = new ArrayList<>();
-		List<Object> hostname = new ArrayList<>();
-		List<Object> port = new ArrayList<>();
-		List<Object> encryption = new ArrayList<>();
-		List<Object> ldapImplementation = new ArrayList<>();
-		List<Object> bindAnonymously = new ArrayList<>();
-		List<Object> bindUserDN = new ArrayList<>();
-		List<Object> hasBindUserPassword = new ArrayList<>();
-		List<Object> userLookupSettings = new ArrayList<>();
-		List<Object> dataMapping = new ArrayList<>();
-		List<Object> mergeLDAPUsersWithExistingSystemUsers = new ArrayList<>();
-		List<Object> syncInterval = new ArrayList<>();
-
-		JsonPath jsonPath = response.jsonPath();
-		Map<String, Object> data = jsonPath.getMap("data");
-
-		if (data != null) {
-			enable.add(data.get("enable"));
-			hostname.add(data.get("hostname"));
-			port.add(data.get("port"));
-			encryption.add(data.get("encryption"));
-			ldapImplementation.add(data.get("ldapImplementation"));
-			bindAnonymously.add(data.get("bindAnonymously"));
-			bindUserDN.add(data.get("bindUserDN"));
-			hasBindUserPassword.add(data.get("hasBindUserPassword"));
-			userLookupSettings.add(data.get("userLookupSettings"));
-			dataMapping.add(data.get("dataMapping"));
-			mergeLDAPUsersWithExistingSystemUsers.add(data.get("mergeLDAPUsersWithExistingSystemUsers"));
-			syncInterval.add(data.get("syncInterval"));
-		} else {
-			System.out.println("⚠️ 'data' field is null in response. Status code: " + statusCode);
-		}
+		Response response = request.put(getBaseUrl() + endpoint).then().extract().response();
+		response = renewExpiredSession(response, Method.PUT, endpoint, cookieValue, body);
 
-		return new CustomResponse(response, statusCode, status, enable, hostname, port, encryption, ldapImplementation,
-				bindAnonymously, bindUserDN, hasBindUserPassword, userLookupSettings, dataMapping,
-				mergeLDAPUsersWithExistingSystemUsers, syncInterval);
+		return ExtractionPlan.LDAP_CONFIG.toCustomResponse(response, bodyRetention);
 	}
 
 	/**
@@ -524,37 +525,18 @@ public class ApiUtil {
 	 *         configuration flags from the response "data" object.
 	 */
 	public CustomResponse PutOptionalField(String endpoint, String cookieValue, Object body) {
-		RequestSpecification request = RestAssured.given().cookie("orangehrm", cookieValue).header("Content-Type",
-				"application/json");
+		RequestTiming.begin();
+		RequestSpecification request = RestAssured.given().spec(ConnectionPool.baseSpec()).cookie("orangehrm",
+				cookieValue);
 
 		if (body != null) {
-			request.body(body);
+			request.body(jsonBody(body));
 		}
 
-		Response response = request.put(BASE_URL + endpoint).then().extract().response();
+		Response response = request.put(getBaseUrl() + endpoint).then().extract().response();
+		response = renewExpiredSession(response, Method.PUT, endpoint, cookieValue, body);
 
-		int statusCode = response.getStatusCode();
-		String status = response.getStatusLine();
-
-		List<Object> pimShowDeprecatedFields = new ArrayList<>();
-		List<Object> showSIN = new ArrayList<>();
-		List<Object> showSSN = new ArrayList<>();
-		List<Object> showTaxExemptions = new ArrayList<>();
-
-		JsonPath jsonPath = response.jsonPath();
-		Map<String, Object> data = jsonPath.getMap("data");
-
-		if (data != null) {
-			pimShowDeprecatedFields.add(data.get("pimShowDeprecatedFields"));
-			showSIN.add(data.get("showSIN"));
-			showSSN.add(data.get("showSSN"));
-			showTaxExemptions.add(data.get("showTaxExemptions"));
-		} else {
-			System.out.println("⚠️ 'data' field is null in response. Status code: " + statusCode);
-		}
-
-		return new CustomResponse(response, statusCode, status, pimShowDeprecatedFields, showSIN, showSSN,
-				showTaxExemptions);
+		return ExtractionPlan.OPTIONAL_FIELD.toCustomResponse(response, bodyRetention);
 	}
 
 	/**
@@ -582,38 +564,18 @@ public class ApiUtil {
 	 *         attributes extracted from the response "data" object.
 	 */
 	public CustomResponse PostCustomField(String endpoint, String cookieValue, String body) {
-		RequestSpecification request = RestAssured.given().cookie("orangehrm", cookieValue).header("Content-Type",
-				"application/json");
+		RequestTiming.begin();
+		RequestSpecification request = RestAssured.given().spec(ConnectionPool.baseSpec()).cookie("orangehrm",
+				cookieValue);
 
 		if (body != null) {
 			request.body(body);
 		}
 
-		Response response = request.post(BASE_URL + endpoint).then().extract().response();
-
-		int statusCode = response.getStatusCode();
-		String status = response.getStatusLine();
-
-		List<Object> id = new ArrayList<>();
-		List<Object> fieldName = new ArrayList<>();
-		List<Object> fieldType = new ArrayList<>();
-		List<Object> extraData = new ArrayList<>();
-		List<Object> screen = new ArrayList<>();
-
-		JsonPath jsonPath = response.jsonPath();
-		Map<String, Object> data = jsonPath.getMap("data");
+		Response response = request.post(getBaseUrl() + endpoint).then().extract().response();
+		response = renewExpiredSession(response, Method.POST, endpoint, cookieValue, body);
 
-		if (data != null) {
-			id.add(data.get("id"));
-			fieldName.add(data.get("fieldName"));
-			fieldType.add(data.get("fieldType"));
-			extraData.add(data.get("extraData"));
-			screen.add(data.get("screen"));
-		} else {
-			System.out.println("⚠️ 'data' field is null in response. Status code: " + statusCode);
-		}
-
-		return new CustomResponse(response, statusCode, status, id, fieldName, fieldType, extraData, screen);
+		return ExtractionPlan.CUSTOM_FIELD_CREATE.toCustomResponse(response, bodyRetention);
 	}
 
 	/**
@@ -641,37 +603,29 @@ public class ApiUtil {
 	 *         field attributes from the response "data" object.
 	 */
 	public CustomResponse PutCustomField(String endpoint, String cookieValue, String body) {
-		RequestSpecification request = RestAssured.given().cookie("orangehrm", cookieValue).header("Content-Type",
-				"application/json");
+		RequestTiming.begin();
+		RequestSpecification request = RestAssured.given().spec(ConnectionPool.baseSpec()).cookie("orangehrm",
+				cookieValue);
 
 		if (body != null) {
 			request.body(body);
 		}
 
-		Response response = request.put(BASE_URL + endpoint).then().extract().response();
-
-		int statusCode = response.getStatusCode();
-		String status = response.getStatusLine();
-
-		List<Object> id = new ArrayList<>();
-		List<Object> fieldName = new ArrayList<>();
-		List<Object> fieldType = new ArrayList<>();
-		List<Object> extraData = new ArrayList<>();
-		List<Object> screen = new ArrayList<>();
+		Response response = request.put(getBaseUrl() + endpoint).then().extract().response();
+		response = renewExpiredSession(response, Method.PUT, endpoint, cookieValue, body);
 
-		JsonPath jsonPath = response.jsonPath();
-		Map<String, Object> data = jsonPath.getMap("data");
+		return ExtractionPlan.CUSTOM_FIELD_UPDATE.toCustomResponse(response, bodyRetention);
+	}
 
-		if (data != null) {
-			id.add(data.get("id"));
-			fieldName.add(data.get("fieldName"));
-			fieldType.add(data.get("fieldType"));
-			extraData.add(data.get("extraData"));
-			screen.add(data.get("screen"));
-		} else {
-			System.out.println("⚠️ 'data' field is null in response. Status code: " + statusCode);
+	// Serialised here with the shared writers rather than by RestAssured, which
+	// creates an ObjectMapper per request body; the bytes are sent as they are.
+	private static byte[] jsonBody(Object body) {
+		if (body instanceof byte[]) {
+			return (byte[]) body;
 		}
-
-		return new CustomResponse(response, statusCode, status, id, fieldName, fieldType, extraData, screen);
+		if (body instanceof String) {
+			return ((String) body).getBytes(StandardCharsets.UTF_8);
+		}
+		return JsonCodec.toBytes(body);
 	}
 }
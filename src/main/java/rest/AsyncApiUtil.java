@@ -0,0 +1,107 @@
+package rest;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking counterpart of {@link ApiUtil}.
+ *
+ * <p>
+ * Each method submits the matching blocking {@link ApiUtil} call to an
+ * {@link Executor} and returns immediately with a {@link CompletableFuture}, so
+ * independent checks (employment statuses, job titles, subunits, PIM
+ * employees, reports and leave eligibility) can overlap their network waits
+ * instead of running one after another.
+ *
+ * <p>
+ * Obtain an instance through {@link ApiUtil#async()} for the default executor
+ * or {@link ApiUtil#async(Executor)} to supply your own. The default executor
+ * uses one virtual thread per task when running on JDK 21 or newer and falls
+ * back to a cached pool of daemon threads on older runtimes.
+ */
+public class AsyncApiUtil {
+
+	private static final Executor DEFAULT_EXECUTOR = createDefaultExecutor();
+
+	private final ApiUtil apiUtil;
+	private final Executor executor;
+
+	AsyncApiUtil(ApiUtil apiUtil, Executor executor) {
+		this.apiUtil = apiUtil;
+		this.executor = executor;
+	}
+
+	/**
+	 * @return the executor used when no explicit executor is supplied.
+	 */
+	public static Executor defaultExecutor() {
+		return DEFAULT_EXECUTOR;
+	}
+
+	public CompletableFuture<CustomResponse> getEmpStatus(String endpoint, String cookieValue,
+			Map<String, String> body) {
+		return CompletableFuture.supplyAsync(() -> apiUtil.GetEmpStatus(endpoint, cookieValue, body), executor);
+	}
+
+	public CompletableFuture<CustomResponse> getJobTitle(String endpoint, String cookieValue,
+			Map<String, String> body) {
+		return CompletableFuture.supplyAsync(() -> apiUtil.GetJobTitle(endpoint, cookieValue, body), executor);
+	}
+
+	public CompletableFuture<CustomResponse> getAdminSubunit(String endpoint, String cookieValue,
+			Map<String, String> body) {
+		return CompletableFuture.supplyAsync(() -> apiUtil.GetAdminSubunit(endpoint, cookieValue, body), executor);
+	}
+
+	public CompletableFuture<CustomResponse> getPimEmp(String endpoint, String cookieValue, Map<String, String> body) {
+		return CompletableFuture.supplyAsync(() -> apiUtil.GetPimEmp(endpoint, cookieValue, body), executor);
+	}
+
+	public CompletableFuture<CustomResponse> getReportASC(String endpoint, String cookieValue,
+			Map<String, String> body) {
+		return CompletableFuture.supplyAsync(() -> apiUtil.GetReportASC(endpoint, cookieValue, body), executor);
+	}
+
+	public CompletableFuture<CustomResponse> getLeaveEligibility(String endpoint, String cookieValue,
+			Map<String, String> body) {
+		return CompletableFuture.supplyAsync(() -> apiUtil.GetLeaveEligibility(endpoint, cookieValue, body),
+				executor);
+	}
+
+	public CompletableFuture<CustomResponse> putAdminConfig(String endpoint, String cookieValue, String body) {
+		return CompletableFuture.supplyAsync(() -> apiUtil.PutAdminConfig(endpoint, cookieValue, body), executor);
+	}
+
+	public CompletableFuture<CustomResponse> putOptionalField(String endpoint, String cookieValue, Object body) {
+		return CompletableFuture.supplyAsync(() -> apiUtil.PutOptionalField(endpoint, cookieValue, body), executor);
+	}
+
+	public CompletableFuture<CustomResponse> postCustomField(String endpoint, String cookieValue, String body) {
+		return CompletableFuture.supplyAsync(() -> apiUtil.PostCustomField(endpoint, cookieValue, body), executor);
+	}
+
+	public CompletableFuture<CustomResponse> putCustomField(String endpoint, String cookieValue, String body) {
+		return CompletableFuture.supplyAsync(() -> apiUtil.PutCustomField(endpoint, cookieValue, body), executor);
+	}
+
+	// Executors.newVirtualThreadPerTaskExecutor() only exists from JDK 21, and the
+	// project still compiles for 1.8, so it is looked up reflectively.
+	private static Executor createDefaultExecutor() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			AtomicInteger counter = new AtomicInteger();
+			return Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable, "api-async-" + counter.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+}
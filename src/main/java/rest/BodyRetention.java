@@ -0,0 +1,63 @@
+package rest;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import restConfig.ConfigManager;
+
+/**
+ * Controls how long a {@link CustomResponse} keeps the raw RestAssured
+ * {@link io.restassured.response.Response} (body bytes, headers and cached
+ * JsonPath) after its columns have been extracted.
+ *
+ * <p>
+ * The status code, status line, headers and extracted columns are always kept.
+ * The default policy is read from the <code>api.bodyRetention</code>
+ * configuration property (see {@link ConfigManager}) and falls back to
+ * {@link #FULL}.
+ */
+public enum BodyRetention {
+
+	/** Always keep the full response. */
+	FULL,
+
+	/** Keep the full response only for non-2xx status codes. */
+	ON_FAILURE,
+
+	/** Never keep the full response. */
+	NONE;
+
+	/**
+	 * @param statusCode - the HTTP status code of the response.
+	 * @return {@code true} if a response with this status code should be kept.
+	 */
+	public boolean retains(int statusCode) {
+		switch (this) {
+		case FULL:
+			return true;
+		case ON_FAILURE:
+			return statusCode < 200 || statusCode >= 300;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * @return the policy named by the <code>api.bodyRetention</code>
+	 *         configuration property, or {@link #FULL} when it is unset or not a
+	 *         policy name.
+	 */
+	public static BodyRetention defaultPolicy() {
+		String value = ConfigManager.getProperty("api.bodyRetention");
+		if (value == null || value.trim().isEmpty()) {
+			return FULL;
+		}
+		try {
+			return valueOf(value.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			System.out.println("⚠️ Unknown api.bodyRetention '" + value + "', expected one of "
+					+ Arrays.toString(values()) + "; using FULL");
+			return FULL;
+		}
+	}
+}
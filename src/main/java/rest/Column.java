@@ -0,0 +1,405 @@
+package rest;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.RandomAccess;
+
+/**
+ * One extracted column of a {@link ColumnarData} result.
+ *
+ * <p>
+ * Values are held in the most compact representation that fits every non-null
+ * value of the column: <code>int[]</code>, <code>long[]</code>, a
+ * {@link BitSet} for booleans, <code>String[]</code>, or <code>Object[]</code>
+ * for mixed and nested values. Nulls are tracked in a separate bitmap, so
+ * integer columns such as <code>id</code>, <code>empNumber</code> or
+ * <code>level</code> never box their values.
+ *
+ * <p>
+ * A column is also a read-only {@link java.util.List List&lt;Object&gt;}; this
+ * is the lazy view handed out by the existing {@link CustomResponse} getters
+ * and fields, which boxes a value only when it is read. Use the typed
+ * accessors ({@link #getInt(int)}, {@link #getLong(int)}, ...) to avoid boxing
+ * altogether.
+ */
+public abstract class Column extends AbstractList<Object> implements RandomAccess {
+
+	/** Storage type of a column. */
+	public enum Type {
+		INT, LONG, BOOLEAN, STRING, OBJECT
+	}
+
+	final int size;
+	final BitSet nulls;
+
+	Column(int size, BitSet nulls) {
+		this.size = size;
+		this.nulls = nulls;
+	}
+
+	public abstract Type type();
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	public boolean isNull(int row) {
+		checkRow(row);
+		return nulls.get(row);
+	}
+
+	public int getInt(int row) {
+		throw new UnsupportedOperationException(type() + " column cannot be read as int");
+	}
+
+	public long getLong(int row) {
+		throw new UnsupportedOperationException(type() + " column cannot be read as long");
+	}
+
+	public boolean getBoolean(int row) {
+		throw new UnsupportedOperationException(type() + " column cannot be read as boolean");
+	}
+
+	public String getString(int row) {
+		Object value = get(row);
+		return value == null ? null : value.toString();
+	}
+
+	void checkRow(int row) {
+		if (row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("Row " + row + " out of range [0, " + size + ")");
+		}
+	}
+
+	/**
+	 * @param expectedRows - initial capacity; the builder grows as needed.
+	 * @return a builder that picks the column representation from the values
+	 *         added to it.
+	 */
+	public static Builder builder(int expectedRows) {
+		return new Builder(expectedRows);
+	}
+
+	static final class IntColumn extends Column {
+		private final int[] values;
+
+		IntColumn(int size, BitSet nulls, int[] values) {
+			super(size, nulls);
+			this.values = values;
+		}
+
+		@Override
+		public Type type() {
+			return Type.INT;
+		}
+
+		@Override
+		public int getInt(int row) {
+			checkRow(row);
+			return values[row];
+		}
+
+		@Override
+		public long getLong(int row) {
+			return getInt(row);
+		}
+
+		@Override
+		public Object get(int row) {
+			checkRow(row);
+			return nulls.get(row) ? null : (Object) values[row];
+		}
+	}
+
+	static final class LongColumn extends Column {
+		private final long[] values;
+
+		LongColumn(int size, BitSet nulls, long[] values) {
+			super(size, nulls);
+			this.values = values;
+		}
+
+		@Override
+		public Type type() {
+			return Type.LONG;
+		}
+
+		@Override
+		public long getLong(int row) {
+			checkRow(row);
+			return values[row];
+		}
+
+		@Override
+		public Object get(int row) {
+			checkRow(row);
+			return nulls.get(row) ? null : (Object) values[row];
+		}
+	}
+
+	static final class BooleanColumn extends Column {
+		private final BitSet values;
+
+		BooleanColumn(int size, BitSet nulls, BitSet values) {
+			super(size, nulls);
+			this.values = values;
+		}
+
+		@Override
+		public Type type() {
+			return Type.BOOLEAN;
+		}
+
+		@Override
+		public boolean getBoolean(int row) {
+			checkRow(row);
+			return values.get(row);
+		}
+
+		@Override
+		public Object get(int row) {
+			checkRow(row);
+			return nulls.get(row) ? null : (Object) values.get(row);
+		}
+	}
+
+	static final class StringColumn extends Column {
+		private final String[] values;
+
+		StringColumn(int size, BitSet nulls, String[] values) {
+			super(size, nulls);
+			this.values = values;
+		}
+
+		@Override
+		public Type type() {
+			return Type.STRING;
+		}
+
+		@Override
+		public String getString(int row) {
+			checkRow(row);
+			return values[row];
+		}
+
+		@Override
+		public Object get(int row) {
+			checkRow(row);
+			return values[row];
+		}
+	}
+
+	static final class ObjectColumn extends Column {
+		private final Object[] values;
+
+		ObjectColumn(int size, BitSet nulls, Object[] values) {
+			super(size, nulls);
+			this.values = values;
+		}
+
+		@Override
+		public Type type() {
+			return Type.OBJECT;
+		}
+
+		@Override
+		public Object get(int row) {
+			checkRow(row);
+			return values[row];
+		}
+	}
+
+	/**
+	 * Accumulates values for one column. The representation starts from the type
+	 * of the first non-null value and is widened (int to long, anything to
+	 * object) only when a later value does not fit.
+	 */
+	public static final class Builder {
+		private Type type;
+		private int size;
+		private final BitSet nulls = new BitSet();
+		private int[] ints;
+		private long[] longs;
+		private BitSet booleans;
+		private Object[] objects;
+		private int capacity;
+
+		private Builder(int expectedRows) {
+			this.capacity = Math.max(expectedRows, 8);
+		}
+
+		public int size() {
+			return size;
+		}
+
+		public void addNull() {
+			ensureCapacity();
+			nulls.set(size);
+			size++;
+		}
+
+		public void addInt(int value) {
+			if (type == null) {
+				start(Type.INT);
+			}
+			ensureCapacity();
+			switch (type) {
+			case INT:
+				ints[size] = value;
+				break;
+			case LONG:
+				longs[size] = value;
+				break;
+			default:
+				toObjects();
+				objects[size] = value;
+			}
+			size++;
+		}
+
+		public void addLong(long value) {
+			if (type == null) {
+				start(Type.LONG);
+			} else if (type == Type.INT) {
+				toLongs();
+			}
+			ensureCapacity();
+			if (type == Type.LONG) {
+				longs[size] = value;
+			} else {
+				toObjects();
+				objects[size] = value;
+			}
+			size++;
+		}
+
+		/**
+		 * Adds a value of any type, choosing the matching typed path for Integer,
+		 * Long, Boolean and String values.
+		 *
+		 * @param value - the value to append, may be null.
+		 */
+		public void add(Object value) {
+			if (value == null) {
+				addNull();
+			} else if (value instanceof Integer) {
+				addInt((Integer) value);
+			} else if (value instanceof Long) {
+				addLong((Long) value);
+			} else if (value instanceof Boolean && (type == null || type == Type.BOOLEAN)) {
+				if (type == null) {
+					start(Type.BOOLEAN);
+				}
+				ensureCapacity();
+				booleans.set(size, (Boolean) value);
+				size++;
+			} else if (value instanceof String && (type == null || type == Type.STRING)) {
+				if (type == null) {
+					start(Type.STRING);
+				}
+				ensureCapacity();
+				objects[size++] = value;
+			} else {
+				if (type == null) {
+					start(Type.OBJECT);
+				}
+				toObjects();
+				ensureCapacity();
+				objects[size++] = value;
+			}
+		}
+
+		public Column build() {
+			if (type == null) {
+				return new ObjectColumn(size, nulls, new Object[size]);
+			}
+			switch (type) {
+			case INT:
+				return new IntColumn(size, nulls, Arrays.copyOf(ints, size));
+			case LONG:
+				return new LongColumn(size, nulls, Arrays.copyOf(longs, size));
+			case BOOLEAN:
+				return new BooleanColumn(size, nulls, booleans);
+			case STRING:
+				return new StringColumn(size, nulls, Arrays.copyOf(objects, size, String[].class));
+			default:
+				return new ObjectColumn(size, nulls, Arrays.copyOf(objects, size));
+			}
+		}
+
+		private void start(Type startType) {
+			type = startType;
+			switch (startType) {
+			case INT:
+				ints = new int[capacity];
+				break;
+			case LONG:
+				longs = new long[capacity];
+				break;
+			case BOOLEAN:
+				booleans = new BitSet(capacity);
+				break;
+			default:
+				objects = new Object[capacity];
+			}
+		}
+
+		private void ensureCapacity() {
+			if (size < capacity) {
+				return;
+			}
+			capacity = capacity + (capacity >> 1);
+			if (ints != null) {
+				ints = Arrays.copyOf(ints, capacity);
+			}
+			if (longs != null) {
+				longs = Arrays.copyOf(longs, capacity);
+			}
+			if (objects != null) {
+				objects = Arrays.copyOf(objects, capacity);
+			}
+		}
+
+		private void toLongs() {
+			longs = new long[capacity];
+			for (int i = 0; i < size; i++) {
+				longs[i] = ints[i];
+			}
+			ints = null;
+			type = Type.LONG;
+		}
+
+		// Widens the current representation to boxed objects, preserving nulls.
+		private void toObjects() {
+			if (type == Type.OBJECT) {
+				return;
+			}
+			Object[] boxed = new Object[capacity];
+			for (int i = 0; i < size; i++) {
+				if (nulls.get(i)) {
+					continue;
+				}
+				switch (type) {
+				case INT:
+					boxed[i] = ints[i];
+					break;
+				case LONG:
+					boxed[i] = longs[i];
+					break;
+				case BOOLEAN:
+					boxed[i] = booleans.get(i);
+					break;
+				default:
+					boxed[i] = objects[i];
+				}
+			}
+			ints = null;
+			longs = null;
+			booleans = null;
+			objects = boxed;
+			type = Type.OBJECT;
+		}
+	}
+}
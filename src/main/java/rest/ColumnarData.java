@@ -0,0 +1,104 @@
+package rest;
+
+import java.util.List;
+
+/**
+ * Columnar result of an extraction: one {@link Column} per requested field, all
+ * of the same length.
+ */
+public final class ColumnarData {
+
+	private final String[] names;
+	private final Column[] columns;
+	private final int rowCount;
+
+	public ColumnarData(String[] names, Column[] columns) {
+		if (names.length != columns.length) {
+			throw new IllegalArgumentException(
+					"Expected " + names.length + " columns but got " + columns.length);
+		}
+		this.names = names;
+		this.columns = columns;
+		this.rowCount = columns.length == 0 ? 0 : columns[0].size();
+	}
+
+	/**
+	 * Builds an empty result with the given column names, used when the response
+	 * carries no "data" member.
+	 *
+	 * @param names - the column names.
+	 * @return a result with zero rows.
+	 */
+	public static ColumnarData empty(String[] names) {
+		Column[] columns = new Column[names.length];
+		for (int i = 0; i < names.length; i++) {
+			columns[i] = Column.builder(0).build();
+		}
+		return new ColumnarData(names, columns);
+	}
+
+	/**
+	 * Appends results with the same column names, e.g. the pages of a list
+	 * endpoint, into one result. Each column keeps the most compact
+	 * representation that fits all parts.
+	 *
+	 * @param names - the column names.
+	 * @param parts - the results to append, in order.
+	 * @return a result with the rows of every part
+	 */
+	public static ColumnarData concat(String[] names, List<ColumnarData> parts) {
+		int rows = 0;
+		for (ColumnarData part : parts) {
+			rows += part.rowCount;
+		}
+		Column[] columns = new Column[names.length];
+		for (int i = 0; i < names.length; i++) {
+			Column.Builder column = Column.builder(rows);
+			for (ColumnarData part : parts) {
+				Column source = part.columns[i];
+				for (int row = 0; row < part.rowCount; row++) {
+					if (source.isNull(row)) {
+						column.addNull();
+					} else if (source.type() == Column.Type.INT) {
+						column.addInt(source.getInt(row));
+					} else if (source.type() == Column.Type.LONG) {
+						column.addLong(source.getLong(row));
+					} else {
+						column.add(source.get(row));
+					}
+				}
+			}
+			columns[i] = column.build();
+		}
+		return new ColumnarData(names, columns);
+	}
+
+	public int rowCount() {
+		return rowCount;
+	}
+
+	public int columnCount() {
+		return columns.length;
+	}
+
+	public String name(int index) {
+		return names[index];
+	}
+
+	public Column column(int index) {
+		return columns[index];
+	}
+
+	/**
+	 * @param name - the field name the column was extracted from.
+	 * @return the column, or {@code null} if no such field was extracted.
+	 */
+	public Column column(String name) {
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].equals(name)) {
+				return columns[i];
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,235 @@
+package rest;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.protocol.RequestAddCookies;
+import org.apache.http.client.protocol.ResponseProcessCookies;
+import org.apache.http.conn.ClientConnectionOperator;
+import org.apache.http.conn.OperatedClientConnection;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.DefaultClientConnectionOperator;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.params.HttpParams;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+
+import io.restassured.RestAssured;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.specification.RequestSpecification;
+import restCassette.CassetteFilter;
+import restConfig.ConfigManager;
+import restConfig.ConfigSnapshot;
+import restMetrics.ApiMetrics;
+
+/**
+ * Shared, connection-pooled HTTP layer used by every {@link ApiUtil} call.
+ *
+ * <p>
+ * RestAssured builds a brand new Apache HttpClient per request unless it is
+ * told otherwise, which means a fresh TCP connection and TLS handshake against
+ * the OrangeHRM host every time. This class owns one thread-safe
+ * {@link DefaultHttpClient} backed by a {@link PoolingClientConnectionManager}
+ * so that keep-alive connections are leased and returned across calls and
+ * across parallel test threads. Every request sent through it is timed into
+ * {@link restMetrics.ApiMetrics}, and connection setup, request send and
+ * response headers are stamped for the {@link RequestTiming} of the call.
+ * When <code>api.cache.enabled</code> is set, GETs are answered from the
+ * {@link ResponseCache} where possible, and when <code>api.cassette</code> is
+ * set, every call is also recorded to or replayed from a cassette (see
+ * {@link CassetteFilter}).
+ *
+ * <p>
+ * The pool is tuned through configuration properties (see
+ * {@link ConfigManager}):
+ * <ul>
+ * <li><code>api.pool.maxTotal</code> - maximum open connections (default 50)</li>
+ * <li><code>api.pool.maxPerRoute</code> - maximum connections per host (default
+ * 20)</li>
+ * <li><code>api.pool.idleSeconds</code> - idle connections older than this are
+ * evicted (default 30)</li>
+ * <li><code>api.pool.ttlSeconds</code> - hard time-to-live of a pooled
+ * connection (default 300)</li>
+ * </ul>
+ */
+public final class ConnectionPool {
+
+	private static final ConfigSnapshot CONFIG = ConfigManager.snapshot();
+	private static final int MAX_TOTAL = CONFIG.getInt("api.pool.maxTotal", 50);
+	private static final int MAX_PER_ROUTE = CONFIG.getInt("api.pool.maxPerRoute", 20);
+	private static final long IDLE_SECONDS = CONFIG.getLong("api.pool.idleSeconds", 30L);
+	private static final long TTL_SECONDS = CONFIG.getLong("api.pool.ttlSeconds", 300L);
+
+	private static final PoolingClientConnectionManager CONNECTION_MANAGER;
+	private static final DefaultHttpClient HTTP_CLIENT;
+	private static final RequestSpecification CLIENT_SPEC;
+	private static final RequestSpecification BASE_SPEC;
+	private static final ScheduledExecutorService EVICTOR;
+
+	static {
+		CONNECTION_MANAGER = new PoolingClientConnectionManager(SchemeRegistryFactory.createDefault(), TTL_SECONDS,
+				TimeUnit.SECONDS) {
+			@Override
+			protected ClientConnectionOperator createConnectionOperator(SchemeRegistry schemeRegistry) {
+				return new TimedConnectionOperator(schemeRegistry);
+			}
+		};
+		CONNECTION_MANAGER.setMaxTotal(MAX_TOTAL);
+		CONNECTION_MANAGER.setDefaultMaxPerRoute(MAX_PER_ROUTE);
+
+		HTTP_CLIENT = new DefaultHttpClient(CONNECTION_MANAGER) {
+			@Override
+			protected HttpRequestExecutor createRequestExecutor() {
+				return new TimedRequestExecutor();
+			}
+		};
+		// The session is always sent explicitly through cookie("orangehrm", ...), so
+		// the client-side cookie store must not leak one caller's session into
+		// another caller's request on the shared client.
+		HTTP_CLIENT.removeRequestInterceptorByClass(RequestAddCookies.class);
+		HTTP_CLIENT.removeResponseInterceptorByClass(ResponseProcessCookies.class);
+
+		RestAssuredConfig config = RestAssured.config().httpClient(HttpClientConfig.httpClientConfig()
+				.reuseHttpClientInstance().httpClientFactory(new HttpClientConfig.HttpClientFactory() {
+					@Override
+					public DefaultHttpClient createHttpClient() {
+						return HTTP_CLIENT;
+					}
+				}));
+
+		RequestSpecBuilder clientSpec = new RequestSpecBuilder().setConfig(config).addFilter(new MetricsFilter());
+		ResponseCache cache = ResponseCache.fromConfig();
+		if (cache != null) {
+			clientSpec.addFilter(cache);
+		}
+		CassetteFilter cassette = CassetteFilter.fromConfig();
+		if (cassette != null) {
+			clientSpec.addFilter(cassette);
+		}
+		CLIENT_SPEC = clientSpec.build();
+		BASE_SPEC = new RequestSpecBuilder().addRequestSpecification(CLIENT_SPEC)
+				.addHeader("Content-Type", "application/json").build();
+
+		EVICTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "api-pool-evictor");
+			thread.setDaemon(true);
+			return thread;
+		});
+		EVICTOR.scheduleWithFixedDelay(ConnectionPool::evictIdleConnections, IDLE_SECONDS, IDLE_SECONDS,
+				TimeUnit.SECONDS);
+
+		ApiMetrics.gauge("orangehrm_http_pool_leased", "Pooled HTTP connections currently in use.",
+				() -> stats().getLeased());
+		ApiMetrics.gauge("orangehrm_http_pool_available", "Idle pooled HTTP connections ready for reuse.",
+				() -> stats().getAvailable());
+		ApiMetrics.gauge("orangehrm_http_pool_pending", "Requests waiting for a pooled HTTP connection.",
+				() -> stats().getPending());
+		ApiMetrics.gauge("orangehrm_http_pool_max", "Maximum number of pooled HTTP connections.",
+				() -> stats().getMax());
+	}
+
+	private ConnectionPool() {
+	}
+
+	/**
+	 * Returns the shared base specification carrying the pooled client
+	 * configuration. Pass it to {@code RestAssured.given().spec(...)}; the
+	 * specification itself is never mutated, so it is safe to share between
+	 * threads.
+	 *
+	 * @return the pooled base {@link RequestSpecification}
+	 */
+	public static RequestSpecification baseSpec() {
+		return BASE_SPEC;
+	}
+
+	/**
+	 * Returns a specification that carries only the pooled client configuration,
+	 * without the JSON content type of {@link #baseSpec()}; for requests such as
+	 * form posts that set their own content type.
+	 *
+	 * @return the pooled client-only {@link RequestSpecification}
+	 */
+	public static RequestSpecification clientSpec() {
+		return CLIENT_SPEC;
+	}
+
+	/**
+	 * Returns a snapshot of the pool totals: connections currently leased,
+	 * available for reuse, requests waiting for a connection and the configured
+	 * maximum.
+	 *
+	 * @return current {@link PoolStats} across all routes
+	 */
+	public static PoolStats stats() {
+		return CONNECTION_MANAGER.getTotalStats();
+	}
+
+	/**
+	 * Closes expired connections and those idle for longer than
+	 * <code>api.pool.idleSeconds</code>. Runs periodically on a daemon thread but
+	 * can also be called directly, e.g. between suites.
+	 */
+	public static void evictIdleConnections() {
+		CONNECTION_MANAGER.closeExpiredConnections();
+		CONNECTION_MANAGER.closeIdleConnections(IDLE_SECONDS, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Shuts the pool down and closes every open connection. Any call made
+	 * through {@link #baseSpec()} afterwards will fail.
+	 */
+	public static void shutdown() {
+		EVICTOR.shutdownNow();
+		CONNECTION_MANAGER.shutdown();
+	}
+
+	// Only called for a connection that is not yet open, so its duration is the
+	// TCP connect plus, for https, the TLS handshake.
+	private static final class TimedConnectionOperator extends DefaultClientConnectionOperator {
+		TimedConnectionOperator(SchemeRegistry schemeRegistry) {
+			super(schemeRegistry);
+		}
+
+		@Override
+		public void openConnection(OperatedClientConnection conn, HttpHost target, InetAddress local,
+				HttpContext context, HttpParams params) throws IOException {
+			long start = System.nanoTime();
+			try {
+				super.openConnection(conn, target, local, context, params);
+			} finally {
+				RequestTiming.connected(System.nanoTime() - start);
+			}
+		}
+	}
+
+	private static final class TimedRequestExecutor extends HttpRequestExecutor {
+		@Override
+		protected HttpResponse doSendRequest(HttpRequest request, HttpClientConnection conn, HttpContext context)
+				throws IOException, HttpException {
+			RequestTiming.requestSent();
+			return super.doSendRequest(request, conn, context);
+		}
+
+		@Override
+		protected HttpResponse doReceiveResponse(HttpRequest request, HttpClientConnection conn,
+				HttpContext context) throws HttpException, IOException {
+			HttpResponse response = super.doReceiveResponse(request, conn, context);
+			RequestTiming.headersReceived();
+			return response;
+		}
+	}
+}
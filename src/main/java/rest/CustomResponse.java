@@ -3,6 +3,7 @@ package rest;
 import java.util.List;
 import java.util.Map;
 
+import io.restassured.http.Headers;
 import io.restassured.response.Response;
 
 public class CustomResponse {
@@ -69,6 +70,9 @@ public class CustomResponse {
 	private Object lastName;
 	@SuppressWarnings("unused")
 	private Object id;
+	private ColumnarData columns;
+	private Headers headers;
+	private RequestTiming timing;
 
 //	public CustomResponse(Response response, int statusCode, String status, List<Object> list1, List<Object> list2,
 //			List<Object> list3, List<Object> list4, List<Object> list5) {
@@ -264,6 +268,34 @@ public class CustomResponse {
 		this.syncInterval = syncInterval;
 	}
 
+	/**
+	 * Returns the extracted fields in columnar form. The list fields and getters
+	 * of this class are read-only views over these same columns.
+	 *
+	 * @return the columns extracted from the response "data" member, or
+	 *         {@code null} if this response was not built from an extraction
+	 *         plan.
+	 */
+	public ColumnarData getColumns() {
+		return columns;
+	}
+
+	public void setColumns(ColumnarData columns) {
+		this.columns = columns;
+	}
+
+	/**
+	 * @return where the time of the call that produced this response went;
+	 *         {@code null} if it was not built by an {@link ExtractionPlan}.
+	 */
+	public RequestTiming getTiming() {
+		return timing;
+	}
+
+	public void setTiming(RequestTiming timing) {
+		this.timing = timing;
+	}
+
 	public Object getId() {
 //		Object id = null;
 		return id;
@@ -294,10 +326,41 @@ public class CustomResponse {
 		return this.empCount;
 	}
 
+	/**
+	 * @return the full RestAssured response, or {@code null} if it was released
+	 *         by {@link #applyRetention(BodyRetention)}.
+	 */
 	public Response getResponse() {
 		return response;
 	}
 
+	/**
+	 * @return the response headers; available even after the full response has
+	 *         been released.
+	 */
+	public Headers getHeaders() {
+		if (headers == null && response != null) {
+			return response.getHeaders();
+		}
+		return headers;
+	}
+
+	/**
+	 * Releases the full response according to the given policy. Status code,
+	 * status line, headers and extracted columns stay available either way.
+	 *
+	 * @param retention - the {@link BodyRetention} policy to apply.
+	 */
+	public void applyRetention(BodyRetention retention) {
+		if (response == null) {
+			return;
+		}
+		headers = response.getHeaders();
+		if (!retention.retains(statusCode)) {
+			response = null;
+		}
+	}
+
 	public void setResponse(Response response) {
 		this.response = response;
 	}
@@ -0,0 +1,274 @@
+package rest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import io.restassured.http.Method;
+import io.restassured.path.json.JsonPath;
+import io.restassured.response.Response;
+import restConfig.ConfigManager;
+import restMetrics.ApiMetrics;
+
+/**
+ * Registry of the per-endpoint extraction plans used by {@link ApiUtil}.
+ *
+ * <p>
+ * Every OrangeHRM call in this project differs only in its endpoint, HTTP verb,
+ * the shape of the <code>"data"</code> member (array of rows or a single
+ * object) and the list of fields copied into the {@link CustomResponse}. Each
+ * constant declares exactly that and is compiled once, at class load, into a
+ * reusable {@link JsonFieldExtractor}, so every call goes through the same
+ * parsing hot path.
+ *
+ * <p>
+ * To support a new endpoint, add a constant here and call it through
+ * {@link ApiUtil#execute(ExtractionPlan, String, String, Object)}.
+ */
+public enum ExtractionPlan {
+
+	EMP_STATUS(Method.GET, "/web/index.php/api/v2/admin/employment-statuses", DataShape.LIST,
+			(r, code, status, c) -> new CustomResponse(r, code, status, c.column(0), c.column(1)), "id", "name"),
+
+	JOB_TITLE(Method.GET, "/web/index.php/api/v2/admin/job-titles", DataShape.LIST,
+			(r, code, status, c) -> new CustomResponse(r, code, status, c.column(0), c.column(1)), "id", "title"),
+
+	ADMIN_SUBUNIT(Method.GET, "/web/index.php/api/v2/admin/subunits", DataShape.LIST,
+			(r, code, status, c) -> new CustomResponse(r, code, status, c.column(0), c.column(1), c.column(2), c.column(3),
+					c.column(4), c.column(5), c.column(6)),
+			"id", "title", "unitId", "description", "level", "left", "right"),
+
+	PIM_EMPLOYEES(Method.GET, "/web/index.php/api/v2/pim/employees", DataShape.LIST,
+			(r, code, status, c) -> new CustomResponse(r, code, status, c.column(0), c.column(1), c.column(2), c.column(3)),
+			"empNumber", "lastName", "firstName", "employeeId"),
+
+	REPORTS_DEFINED(Method.GET, "/web/index.php/api/v2/pim/reports/defined", DataShape.LIST,
+			(r, code, status, c) -> new CustomResponse(r, code, status, c.column(0), c.column(1)), "id", "name"),
+
+	LEAVE_ELIGIBILITY(Method.GET, "/web/index.php/api/v2/leave/leave-types/eligible", DataShape.LIST,
+			(r, code, status, c) -> new CustomResponse(r, code, status, c.column(0), c.column(1), c.column(2), c.column(3)),
+			"id", "name", "deleted", "situational"),
+
+	LDAP_CONFIG(Method.PUT, "/web/index.php/api/v2/admin/ldap-config", DataShape.OBJECT,
+			(r, code, status, c) -> new CustomResponse(r, code, status, c.column(0), c.column(1), c.column(2), c.column(3),
+					c.column(4), c.column(5), c.column(6), c.column(7), c.column(8), c.column(9), c.column(10), c.column(11)),
+			"enable", "hostname", "port", "encryption", "ldapImplementation", "bindAnonymously", "bindUserDN",
+			"hasBindUserPassword", "userLookupSettings", "dataMapping", "mergeLDAPUsersWithExistingSystemUsers",
+			"syncInterval"),
+
+	OPTIONAL_FIELD(Method.PUT, "/web/index.php/api/v2/pim/optional-field", DataShape.OBJECT,
+			(r, code, status, c) -> new CustomResponse(r, code, status, c.column(0), c.column(1), c.column(2), c.column(3)),
+			"pimShowDeprecatedFields", "showSIN", "showSSN", "showTaxExemptions"),
+
+	CUSTOM_FIELD_CREATE(Method.POST, "/web/index.php/api/v2/pim/custom-fields", DataShape.OBJECT,
+			(r, code, status, c) -> new CustomResponse(r, code, status, c.column(0), c.column(1), c.column(2), c.column(3),
+					c.column(4)),
+			"id", "fieldName", "fieldType", "extraData", "screen"),
+
+	CUSTOM_FIELD_UPDATE(Method.PUT, "/web/index.php/api/v2/pim/custom-fields", DataShape.OBJECT,
+			(r, code, status, c) -> new CustomResponse(r, code, status, c.column(0), c.column(1), c.column(2), c.column(3),
+					c.column(4)),
+			"id", "fieldName", "fieldType", "extraData", "screen");
+
+	/**
+	 * Shape of the <code>"data"</code> member returned by an endpoint.
+	 */
+	public enum DataShape {
+		/** <code>"data"</code> is an array; every element becomes one row. */
+		LIST,
+		/** <code>"data"</code> is a single object; it becomes exactly one row. */
+		OBJECT
+	}
+
+	/**
+	 * Builds the {@link CustomResponse} for a plan from the extracted columns.
+	 */
+	public interface ResponseFactory {
+		CustomResponse create(Response response, int statusCode, String status, ColumnarData columns);
+	}
+
+	private static final boolean USE_JSON_PATH = "jsonpath"
+			.equalsIgnoreCase(ConfigManager.getProperty("api.extractor"));
+
+	private final Method method;
+	private final String path;
+	private final DataShape shape;
+	private final ResponseFactory factory;
+	private final String[] fields;
+	private final JsonFieldExtractor extractor;
+
+	ExtractionPlan(Method method, String path, DataShape shape, ResponseFactory factory, String... fields) {
+		this.method = method;
+		this.path = path;
+		this.shape = shape;
+		this.factory = factory;
+		this.fields = fields;
+		this.extractor = new JsonFieldExtractor(fields);
+	}
+
+	public Method method() {
+		return method;
+	}
+
+	public String path() {
+		return path;
+	}
+
+	public DataShape shape() {
+		return shape;
+	}
+
+	public String[] fields() {
+		return fields.clone();
+	}
+
+	/**
+	 * Finds the plan registered for a verb and endpoint. The query string is
+	 * ignored and a trailing path segment (e.g. the id in
+	 * <code>/pim/custom-fields/1</code>) still matches its collection.
+	 *
+	 * @param method   - the HTTP verb.
+	 * @param endpoint - the endpoint, with or without the base URL and query.
+	 *
+	 * @return the matching plan, or {@code null} if none is registered.
+	 */
+	public static ExtractionPlan find(Method method, String endpoint) {
+		String requestPath = endpoint;
+		int query = requestPath.indexOf('?');
+		if (query >= 0) {
+			requestPath = requestPath.substring(0, query);
+		}
+		for (ExtractionPlan plan : values()) {
+			if (plan.method != method) {
+				continue;
+			}
+			if (requestPath.endsWith(plan.path) || requestPath.contains(plan.path + "/")) {
+				return plan;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Extracts this plan's fields from the response and wraps them, together
+	 * with the status code and status line, in a {@link CustomResponse}. The
+	 * full response is kept according to {@link BodyRetention#defaultPolicy()}.
+	 *
+	 * @param response - the response returned by RestAssured.
+	 *
+	 * @return CustomResponse - the populated response; columns are empty when
+	 *         "data" is null or missing.
+	 */
+	public CustomResponse toCustomResponse(Response response) {
+		return toCustomResponse(response, BodyRetention.defaultPolicy());
+	}
+
+	/**
+	 * Extracts this plan's fields from the response and wraps them, together
+	 * with the status code and status line, in a {@link CustomResponse}. The
+	 * timing of the call is attached to the result and added to the endpoint's
+	 * {@link ApiMetrics}. A response served by the {@link ResponseCache} reuses
+	 * the columns extracted the first time.
+	 *
+	 * @param response  - the response returned by RestAssured.
+	 * @param retention - whether the full response stays referenced by the
+	 *                  result once the columns are extracted.
+	 *
+	 * @return CustomResponse - the populated response; columns are empty when
+	 *         "data" is null or missing.
+	 */
+	public CustomResponse toCustomResponse(Response response, BodyRetention retention) {
+		int statusCode = response.getStatusCode();
+		String status = response.getStatusLine();
+		long extractionStart = System.nanoTime();
+		ColumnarData columns = ResponseCache.columns(response, this, () -> extractColumns(response));
+		long extractionEnd = System.nanoTime();
+
+		CustomResponse customResponse = factory.create(response, statusCode, status, columns);
+		customResponse.setColumns(columns);
+		customResponse.applyRetention(retention);
+
+		RequestTiming timing = RequestTiming.finish(extractionStart, extractionEnd, System.nanoTime());
+		customResponse.setTiming(timing);
+		ApiMetrics.endpoint(name()).recordPhases(timing.getPhaseNanos(), timing.isNewConnection());
+		return customResponse;
+	}
+
+	/**
+	 * Builds this plan's {@link CustomResponse} around columns that were already
+	 * extracted, e.g. merged from several pages.
+	 */
+	CustomResponse create(Response response, int statusCode, String status, ColumnarData columns) {
+		CustomResponse customResponse = factory.create(response, statusCode, status, columns);
+		customResponse.setColumns(columns);
+		return customResponse;
+	}
+
+	/**
+	 * Extracts this plan's fields from the "data" member of the response, one
+	 * column per field.
+	 *
+	 * <p>
+	 * By default the body is read with the streaming {@link JsonFieldExtractor}.
+	 * Run with <code>-Dapi.extractor=jsonpath</code> to use the original
+	 * <code>response.jsonPath()</code> parsing instead, e.g. for comparison.
+	 *
+	 * @param response - the response whose body is parsed.
+	 *
+	 * @return the extracted columns in field order; empty columns if "data" is
+	 *         null or missing.
+	 * @throws UncheckedIOException if the body is malformed or truncated JSON
+	 */
+	public ColumnarData extractColumns(Response response) {
+		ColumnarData columns;
+		if (USE_JSON_PATH) {
+			columns = extractColumnsWithJsonPath(response);
+		} else {
+			try {
+				columns = extractor.extract(response.asByteArray());
+			} catch (IOException e) {
+				// Like response.jsonPath(), a body that is not valid JSON fails the
+				// call here instead of passing for an empty result.
+				throw new UncheckedIOException("Malformed JSON in response to " + this + " (status "
+						+ response.getStatusCode() + ")", e);
+			}
+		}
+
+		if (columns == null) {
+			System.out.println("⚠️ 'data' field is null in response. Status code: " + response.getStatusCode());
+			columns = ColumnarData.empty(fields);
+		}
+		return columns;
+	}
+
+	private ColumnarData extractColumnsWithJsonPath(Response response) {
+		JsonPath jsonPath = response.jsonPath();
+
+		List<Map<String, Object>> rows;
+		if (shape == DataShape.LIST) {
+			rows = jsonPath.getList("data");
+		} else {
+			Map<String, Object> data = jsonPath.getMap("data");
+			if (data == null) {
+				return null;
+			}
+			rows = new ArrayList<>();
+			rows.add(data);
+		}
+		if (rows == null) {
+			return null;
+		}
+
+		Column[] columns = new Column[fields.length];
+		for (int i = 0; i < fields.length; i++) {
+			Column.Builder column = Column.builder(rows.size());
+			for (Map<String, Object> row : rows) {
+				column.add(row.get(fields[i]));
+			}
+			columns[i] = column.build();
+		}
+		return new ColumnarData(fields, columns);
+	}
+}
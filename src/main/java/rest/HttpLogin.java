@@ -0,0 +1,130 @@
+package rest;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+
+/**
+ * Browserless login to OrangeHRM that returns the <code>orangehrm</code>
+ * session cookie.
+ *
+ * <p>
+ * The login runs the same three steps a browser would, over plain HTTP on the
+ * pooled client:
+ * <ol>
+ * <li>GET <code>/web/index.php/auth/login</code> to obtain a pre-login session
+ * cookie and the CSRF token embedded in the login component</li>
+ * <li>POST the token, username and password to
+ * <code>/web/index.php/auth/validate</code> without following the
+ * redirect</li>
+ * <li>read the (regenerated) <code>orangehrm</code> cookie from the redirect
+ * response</li>
+ * </ol>
+ */
+public final class HttpLogin {
+
+	public static final String SESSION_COOKIE = "orangehrm";
+
+	private static final String LOGIN_PATH = "/web/index.php/auth/login";
+	private static final String PROBE_PATH = "/web/index.php/api/v2/admin/employment-statuses?limit=1";
+	private static final String VALIDATE_PATH = "/web/index.php/auth/validate";
+
+	// Marks the probe so that MetricsFilter keeps it out of EMP_STATUS.
+	static final String PROBE_HEADER = "X-Session-Probe";
+
+	// The Vue login component carries the token as :token="&quot;...&quot;";
+	// older builds render a hidden _token input instead.
+	private static final Pattern[] TOKEN_PATTERNS = {
+			Pattern.compile(":token=\"&quot;([^&\"]+)&quot;\""),
+			Pattern.compile("name=\"_token\"[^>]*value=\"([^\"]+)\""),
+			Pattern.compile("value=\"([^\"]+)\"[^>]*name=\"_token\"") };
+
+	private HttpLogin() {
+	}
+
+	/**
+	 * Logs in over HTTP and returns the session cookie value.
+	 *
+	 * @param baseUrl  - the OrangeHRM base URL, e.g. the configured
+	 *                 <code>base.url</code>.
+	 * @param username - the login user name.
+	 * @param password - the login password.
+	 *
+	 * @return the value of the authenticated <code>orangehrm</code> cookie.
+	 * @throws IllegalStateException if the login page has no CSRF token, the
+	 *                               credentials are rejected or no session
+	 *                               cookie is returned.
+	 */
+	public static String login(String baseUrl, String username, String password) {
+		Response loginPage = RestAssured.given().spec(ConnectionPool.clientSpec()).redirects().follow(false)
+				.get(baseUrl + LOGIN_PATH).then().extract().response();
+
+		String preLoginCookie = loginPage.getCookie(SESSION_COOKIE);
+		String token = extractToken(loginPage.asString());
+		if (token == null) {
+			throw new IllegalStateException(
+					"CSRF token not found on login page. Status code: " + loginPage.getStatusCode());
+		}
+
+		RequestSpecification request = RestAssured.given().spec(ConnectionPool.clientSpec()).redirects()
+				.follow(false).contentType("application/x-www-form-urlencoded").formParam("_token", token)
+				.formParam("username", username).formParam("password", password);
+		if (preLoginCookie != null) {
+			request.cookie(SESSION_COOKIE, preLoginCookie);
+		}
+
+		Response validate = request.post(baseUrl + VALIDATE_PATH).then().extract().response();
+
+		String location = validate.getHeader("Location");
+		if (location == null || location.contains(LOGIN_PATH)) {
+			throw new IllegalStateException("Login rejected for user '" + username + "'. Status code: "
+					+ validate.getStatusCode() + ", redirect: " + location);
+		}
+
+		String sessionCookie = validate.getCookie(SESSION_COOKIE);
+		if (sessionCookie == null) {
+			sessionCookie = preLoginCookie;
+		}
+		if (sessionCookie == null) {
+			throw new IllegalStateException(SESSION_COOKIE + " cookie not found after login");
+		}
+		return sessionCookie;
+	}
+
+	/**
+	 * Checks a session cookie with one small authenticated GET.
+	 *
+	 * @param baseUrl       - the OrangeHRM base URL.
+	 * @param sessionCookie - the <code>orangehrm</code> cookie value to check.
+	 *
+	 * @return {@code true} if the server accepts the cookie.
+	 */
+	public static boolean isSessionValid(String baseUrl, String sessionCookie) {
+		try {
+			// no-cache keeps the ResponseCache from answering the probe.
+			int statusCode = RestAssured.given().spec(ConnectionPool.baseSpec()).redirects().follow(false)
+					.header("Cache-Control", "no-cache").header(PROBE_HEADER, "true")
+					.cookie(SESSION_COOKIE, sessionCookie).get(baseUrl + PROBE_PATH).getStatusCode();
+			return statusCode == 200;
+		} catch (RuntimeException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * @param html - the login page markup.
+	 * @return the CSRF token, or {@code null} if the page does not contain one.
+	 */
+	static String extractToken(String html) {
+		for (Pattern pattern : TOKEN_PATTERNS) {
+			Matcher matcher = pattern.matcher(html);
+			if (matcher.find()) {
+				return matcher.group(1);
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,201 @@
+package rest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonParser.NumberType;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Single-pass, streaming extraction of selected fields from the
+ * <code>"data"</code> member of an OrangeHRM API response.
+ *
+ * <p>
+ * Unlike <code>response.jsonPath().getList("data")</code>, which materialises
+ * the whole body as a tree of maps before a handful of fields are copied out,
+ * this extractor walks the body once with a Jackson {@link JsonParser}, skips
+ * every member that was not asked for and appends the requested values
+ * straight into one {@link Column} per field; integers, booleans and strings are
+ * stored unboxed in primitive or compact arrays.
+ *
+ * <p>
+ * Both shapes used by the API are supported: <code>"data"</code> as an array
+ * of objects (one row per element) and <code>"data"</code> as a single object
+ * (exactly one row). Scalars are read back with the same Java types JsonPath
+ * produces (Integer/Long, Float/Double, String, Boolean, null); nested objects
+ * and arrays of a requested field are returned as {@link LinkedHashMap} and
+ * {@link ArrayList}.
+ */
+public final class JsonFieldExtractor {
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	private final String[] fields;
+	private final Map<String, Integer> fieldIndex;
+
+	/**
+	 * @param fields - the member names to extract, in the order the columns
+	 *               should be returned.
+	 */
+	public JsonFieldExtractor(String... fields) {
+		this.fields = fields.clone();
+		this.fieldIndex = new HashMap<>(fields.length * 2);
+		for (int i = 0; i < fields.length; i++) {
+			fieldIndex.put(fields[i], i);
+		}
+	}
+
+	/**
+	 * Extracts the configured fields from the <code>"data"</code> member of the
+	 * given JSON body.
+	 *
+	 * @param body - the raw response body.
+	 * @return one column per configured field, in configuration order; or
+	 *         {@code null} when the body has no <code>"data"</code> member or it is
+	 *         JSON null.
+	 * @throws IOException if the body is not valid JSON.
+	 */
+	public ColumnarData extract(byte[] body) throws IOException {
+		try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				return null;
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String name = parser.getCurrentName();
+				JsonToken token = parser.nextToken();
+				if (!"data".equals(name)) {
+					parser.skipChildren();
+					continue;
+				}
+				if (token == JsonToken.START_ARRAY) {
+					Column.Builder[] columns = newColumns(16);
+					int rows = 0;
+					while (parser.nextToken() == JsonToken.START_OBJECT) {
+						readRow(parser, columns, rows++);
+					}
+					return build(columns);
+				}
+				if (token == JsonToken.START_OBJECT) {
+					Column.Builder[] columns = newColumns(1);
+					readRow(parser, columns, 0);
+					return build(columns);
+				}
+				return null;
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Reads <code>meta.total</code>, the number of rows a list endpoint holds
+	 * across all pages, skipping everything else in the body.
+	 *
+	 * @param body - the raw response body.
+	 * @return the total, or -1 if the body has no numeric
+	 *         <code>meta.total</code>.
+	 * @throws IOException if the body is not valid JSON.
+	 */
+	public static long readTotal(byte[] body) throws IOException {
+		try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				return -1;
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String name = parser.getCurrentName();
+				JsonToken token = parser.nextToken();
+				if (!"meta".equals(name) || token != JsonToken.START_OBJECT) {
+					parser.skipChildren();
+					continue;
+				}
+				while (parser.nextToken() == JsonToken.FIELD_NAME) {
+					String member = parser.getCurrentName();
+					token = parser.nextToken();
+					if ("total".equals(member) && token == JsonToken.VALUE_NUMBER_INT) {
+						return parser.getLongValue();
+					}
+					parser.skipChildren();
+				}
+				return -1;
+			}
+			return -1;
+		}
+	}
+
+	private Column.Builder[] newColumns(int expectedRows) {
+		Column.Builder[] columns = new Column.Builder[fields.length];
+		for (int i = 0; i < fields.length; i++) {
+			columns[i] = Column.builder(expectedRows);
+		}
+		return columns;
+	}
+
+	private ColumnarData build(Column.Builder[] builders) {
+		Column[] columns = new Column[builders.length];
+		for (int i = 0; i < builders.length; i++) {
+			columns[i] = builders[i].build();
+		}
+		return new ColumnarData(fields, columns);
+	}
+
+	// The parser is positioned on START_OBJECT of row number 'row'. A repeated
+	// member keeps its first value, and fields missing from the row are recorded
+	// as null so that all columns keep the same length.
+	private void readRow(JsonParser parser, Column.Builder[] columns, int row) throws IOException {
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			Integer index = fieldIndex.get(parser.getCurrentName());
+			JsonToken token = parser.nextToken();
+			if (index == null || columns[index].size() > row) {
+				parser.skipChildren();
+			} else if (token == JsonToken.VALUE_NUMBER_INT && parser.getNumberType() == NumberType.INT) {
+				columns[index].addInt(parser.getIntValue());
+			} else if (token == JsonToken.VALUE_NUMBER_INT && parser.getNumberType() == NumberType.LONG) {
+				columns[index].addLong(parser.getLongValue());
+			} else {
+				columns[index].add(readValue(parser));
+			}
+		}
+		for (Column.Builder column : columns) {
+			if (column.size() == row) {
+				column.addNull();
+			}
+		}
+	}
+
+	private static Object readValue(JsonParser parser) throws IOException {
+		switch (parser.currentToken()) {
+		case START_OBJECT:
+			Map<String, Object> map = new LinkedHashMap<>();
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String name = parser.getCurrentName();
+				parser.nextToken();
+				map.put(name, readValue(parser));
+			}
+			return map;
+		case START_ARRAY:
+			List<Object> list = new ArrayList<>();
+			while (parser.nextToken() != JsonToken.END_ARRAY) {
+				list.add(readValue(parser));
+			}
+			return list;
+		case VALUE_STRING:
+			return parser.getText();
+		case VALUE_NUMBER_INT:
+			return parser.getNumberValue();
+		case VALUE_NUMBER_FLOAT:
+			float value = parser.getFloatValue();
+			return Float.isInfinite(value) ? (Object) parser.getDoubleValue() : (Object) value;
+		case VALUE_TRUE:
+			return Boolean.TRUE;
+		case VALUE_FALSE:
+			return Boolean.FALSE;
+		default:
+			return null;
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package rest;
+
+import java.net.URI;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.http.Method;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import restMetrics.ApiMetrics;
+
+/**
+ * Records the latency and outcome of every request sent through the pooled
+ * specifications into {@link ApiMetrics}, and marks the end of the body
+ * download for {@link RequestTiming}.
+ *
+ * <p>
+ * Requests are named after their {@link ExtractionPlan}, e.g.
+ * <code>PIM_EMPLOYEES</code>, so calls with different query strings or record
+ * ids share one histogram. Session probes of {@link HttpLogin} are named
+ * <code>SESSION_PROBE</code> and every request without a plan, such as the
+ * login itself, <code>other</code>, which keeps the number of names fixed.
+ */
+final class MetricsFilter implements Filter {
+
+	static final String SESSION_PROBE = "SESSION_PROBE";
+	static final String OTHER = "other";
+
+	@Override
+	public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+			FilterContext ctx) {
+		long start = System.nanoTime();
+		boolean success = false;
+		try {
+			Response response = ctx.next(requestSpec, responseSpec);
+			RequestTiming.responseRead();
+			success = ApiMetrics.isSuccess(response.getStatusCode());
+			return response;
+		} finally {
+			String name = requestSpec.getHeaders().getValue(HttpLogin.PROBE_HEADER) != null ? SESSION_PROBE
+					: endpointName(requestSpec.getMethod(), requestSpec.getURI());
+			ApiMetrics.record(name, System.nanoTime() - start, success);
+		}
+	}
+
+	static String endpointName(String method, String uri) {
+		String path = uri;
+		try {
+			path = URI.create(uri).getRawPath();
+		} catch (IllegalArgumentException e) {
+			int query = path.indexOf('?');
+			if (query >= 0) {
+				path = path.substring(0, query);
+			}
+		}
+		try {
+			ExtractionPlan plan = ExtractionPlan.find(Method.valueOf(method), path);
+			if (plan != null) {
+				return plan.name();
+			}
+		} catch (IllegalArgumentException e) {
+			// Not a RestAssured method name.
+		}
+		return OTHER;
+	}
+}
@@ -0,0 +1,157 @@
+package rest;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import restConfig.ConfigManager;
+
+/**
+ * Fetches every page of a list endpoint concurrently and merges them into one
+ * columnar {@link CustomResponse}.
+ *
+ * <p>
+ * The first page is fetched alone to learn <code>meta.total</code>; the
+ * offsets of all remaining pages then follow from the page size, so they are
+ * requested together, at most <code>parallelism</code> at a time, and a large
+ * list costs a few round trips instead of one per page. The pages are merged
+ * in offset order whatever order they arrive in. When the first page carries
+ * no total, the remaining pages are read one after another until a short page.
+ *
+ * <p>
+ * The pages are separate requests, so rows created or deleted while they are
+ * fetched may be missed or seen twice, exactly as with manual paging.
+ *
+ * <p>
+ * Configuration properties (see {@link ConfigManager}):
+ * <ul>
+ * <li><code>api.paging.parallelism</code> - pages fetched at the same time
+ * (default 4)</li>
+ * </ul>
+ */
+public final class PageFetcher {
+
+	private final ApiUtil apiUtil;
+	private final int parallelism;
+	private final Executor executor;
+
+	/**
+	 * @param apiUtil     - fetches the pages.
+	 * @param parallelism - maximum number of pages fetched at the same time.
+	 * @param executor    - runs the page requests.
+	 */
+	public PageFetcher(ApiUtil apiUtil, int parallelism, Executor executor) {
+		this.apiUtil = apiUtil;
+		this.parallelism = Math.max(1, parallelism);
+		this.executor = executor;
+	}
+
+	/**
+	 * @return the parallelism configured by <code>api.paging.parallelism</code>.
+	 */
+	public static int defaultParallelism() {
+		return Integer.parseInt(ConfigManager.getProperty("api.paging.parallelism", "4").trim());
+	}
+
+	/**
+	 * Fetches all rows of a list endpoint.
+	 *
+	 * @param plan        - a {@link ExtractionPlan.DataShape#LIST} plan.
+	 * @param endpoint    - the endpoint relative to the base URL; existing
+	 *                    <code>limit</code>/<code>offset</code> parameters are
+	 *                    replaced, other parameters such as sorting are kept.
+	 * @param cookieValue - the session cookie value.
+	 * @param pageSize    - rows requested per page.
+	 * @return the first page's status and response with the columns of all
+	 *         pages; or, if a page fails, that page unchanged
+	 */
+	public CustomResponse fetchAll(ExtractionPlan plan, String endpoint, String cookieValue, int pageSize) {
+		if (plan.shape() != ExtractionPlan.DataShape.LIST) {
+			throw new IllegalArgumentException(plan + " does not return a list");
+		}
+		if (pageSize <= 0) {
+			throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+		}
+		String base = PageIterator.withoutPaging(endpoint);
+		base += base.indexOf('?') < 0 ? "?" : "&";
+
+		CustomResponse first = apiUtil.execute(plan, page(base, pageSize, 0), cookieValue, null);
+		if (!isSuccess(first)) {
+			return first;
+		}
+		List<ColumnarData> pages = new ArrayList<>();
+		pages.add(first.getColumns());
+
+		long total = total(first);
+		if (total < 0) {
+			CustomResponse last = first;
+			for (int offset = pageSize; last.getColumns().rowCount() == pageSize; offset += pageSize) {
+				last = apiUtil.execute(plan, page(base, pageSize, offset), cookieValue, null);
+				if (!isSuccess(last)) {
+					return last;
+				}
+				pages.add(last.getColumns());
+			}
+		} else {
+			ArrayDeque<CompletableFuture<CustomResponse>> inFlight = new ArrayDeque<>();
+			for (long offset = pageSize; offset < total || !inFlight.isEmpty(); offset += pageSize) {
+				if (offset < total) {
+					String next = page(base, pageSize, offset);
+					inFlight.add(CompletableFuture.supplyAsync(() -> apiUtil.execute(plan, next, cookieValue, null),
+							executor));
+				}
+				if (inFlight.size() < parallelism && offset < total) {
+					continue;
+				}
+				CustomResponse page = await(inFlight);
+				if (!isSuccess(page)) {
+					for (CompletableFuture<CustomResponse> pending : inFlight) {
+						pending.cancel(false);
+					}
+					return page;
+				}
+				pages.add(page.getColumns());
+			}
+		}
+
+		ColumnarData columns = ColumnarData.concat(plan.fields(), pages);
+		return plan.create(first.getResponse(), first.getStatusCode(), first.getStatus(), columns);
+	}
+
+	private static CustomResponse await(ArrayDeque<CompletableFuture<CustomResponse>> inFlight) {
+		try {
+			return inFlight.poll().join();
+		} catch (CompletionException e) {
+			for (CompletableFuture<CustomResponse> pending : inFlight) {
+				pending.cancel(false);
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	private static long total(CustomResponse first) {
+		if (first.getResponse() == null) {
+			return -1;
+		}
+		try {
+			return JsonFieldExtractor.readTotal(first.getResponse().asByteArray());
+		} catch (IOException e) {
+			return -1;
+		}
+	}
+
+	private static boolean isSuccess(CustomResponse page) {
+		return page.getStatusCode() >= 200 && page.getStatusCode() < 300 && page.getColumns() != null;
+	}
+
+	private static String page(String base, int pageSize, long offset) {
+		return base + "limit=" + pageSize + "&offset=" + offset;
+	}
+}
@@ -0,0 +1,210 @@
+package rest;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import restConfig.ConfigManager;
+
+/**
+ * Lazy iterator over the pages of a list endpoint, requested with
+ * <code>limit</code>/<code>offset</code> query parameters.
+ *
+ * <p>
+ * Pages are fetched only as they are consumed, and while the caller works on
+ * one page the next <code>prefetch</code> pages are already being fetched on an
+ * {@link Executor}, so a walk over a large tenant is not a sequence of idle
+ * round trips. At most <code>prefetch + 1</code> pages are held at a time, so
+ * memory stays bounded however many employees the tenant has.
+ *
+ * <p>
+ * Iteration ends after the first page with fewer rows than the page size, or
+ * after the first page with a non-2xx status, which is still returned so the
+ * caller can see it. Close the iterator, or the stream built from it, when
+ * leaving early to cancel the pages still in flight.
+ *
+ * <p>
+ * Configuration properties (see {@link ConfigManager}):
+ * <ul>
+ * <li><code>api.paging.pageSize</code> - default page size (default 100)</li>
+ * <li><code>api.paging.prefetch</code> - pages fetched ahead of the one being
+ * consumed (default 1)</li>
+ * </ul>
+ */
+public final class PageIterator implements Iterator<CustomResponse>, AutoCloseable {
+
+	private final ApiUtil apiUtil;
+	private final ExtractionPlan plan;
+	private final String endpoint;
+	private final String cookieValue;
+	private final int pageSize;
+	private final int prefetch;
+	private final Executor executor;
+	private final ArrayDeque<CompletableFuture<CustomResponse>> pending = new ArrayDeque<>();
+
+	private int nextOffset;
+	private boolean lastPageRequested;
+	private CustomResponse peeked;
+
+	/**
+	 * @param apiUtil     - fetches the pages; see
+	 *                    {@link ApiUtil#pages(ExtractionPlan, String, String, int)}
+	 *                    for one that releases their bodies.
+	 * @param plan        - a {@link ExtractionPlan.DataShape#LIST} plan.
+	 * @param endpoint    - the endpoint relative to the base URL; existing
+	 *                    <code>limit</code>/<code>offset</code> parameters are
+	 *                    replaced.
+	 * @param cookieValue - the session cookie value.
+	 * @param pageSize    - rows requested per page.
+	 * @param prefetch    - pages fetched ahead of the one being consumed.
+	 * @param executor    - runs the page requests.
+	 */
+	public PageIterator(ApiUtil apiUtil, ExtractionPlan plan, String endpoint, String cookieValue, int pageSize,
+			int prefetch, Executor executor) {
+		if (plan.shape() != ExtractionPlan.DataShape.LIST) {
+			throw new IllegalArgumentException(plan + " does not return a list");
+		}
+		if (pageSize <= 0) {
+			throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+		}
+		this.apiUtil = apiUtil;
+		this.plan = plan;
+		this.endpoint = withoutPaging(endpoint);
+		this.cookieValue = cookieValue;
+		this.pageSize = pageSize;
+		this.prefetch = Math.max(0, prefetch);
+		this.executor = executor;
+	}
+
+	/**
+	 * @return the page size configured by <code>api.paging.pageSize</code>.
+	 */
+	public static int defaultPageSize() {
+		return Integer.parseInt(ConfigManager.getProperty("api.paging.pageSize", "100").trim());
+	}
+
+	/**
+	 * @return the prefetch depth configured by <code>api.paging.prefetch</code>.
+	 */
+	public static int defaultPrefetch() {
+		return Integer.parseInt(ConfigManager.getProperty("api.paging.prefetch", "1").trim());
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (peeked == null) {
+			peeked = advance();
+		}
+		return peeked != null;
+	}
+
+	@Override
+	public CustomResponse next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		CustomResponse page = peeked;
+		peeked = null;
+		return page;
+	}
+
+	/**
+	 * Cancels the pages still being fetched and ends the iteration.
+	 */
+	@Override
+	public void close() {
+		lastPageRequested = true;
+		peeked = null;
+		for (CompletableFuture<CustomResponse> page : pending) {
+			page.cancel(false);
+		}
+		pending.clear();
+	}
+
+	/**
+	 * @return the remaining pages as a sequential stream; closing the stream
+	 *         closes this iterator.
+	 */
+	public Stream<CustomResponse> stream() {
+		return StreamSupport
+				.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(this::close);
+	}
+
+	/**
+	 * @return the rows of the remaining pages, one map of field name to value
+	 *         per row, in the order of the plan's fields; closing the stream
+	 *         closes this iterator.
+	 */
+	public Stream<Map<String, Object>> rows() {
+		return stream().flatMap(page -> {
+			ColumnarData columns = page.getColumns();
+			return IntStream.range(0, columns.rowCount()).mapToObj(row -> {
+				Map<String, Object> values = new LinkedHashMap<>();
+				for (int i = 0; i < columns.columnCount(); i++) {
+					values.put(columns.name(i), columns.column(i).get(row));
+				}
+				return values;
+			});
+		});
+	}
+
+	// Keeps prefetch + 1 pages in flight, then waits for the oldest one.
+	private CustomResponse advance() {
+		while (!lastPageRequested && pending.size() <= prefetch) {
+			String page = endpoint + (endpoint.indexOf('?') < 0 ? "?" : "&") + "limit=" + pageSize + "&offset="
+					+ nextOffset;
+			nextOffset += pageSize;
+			pending.add(CompletableFuture.supplyAsync(() -> apiUtil.execute(plan, page, cookieValue, null), executor));
+		}
+		CompletableFuture<CustomResponse> oldest = pending.poll();
+		if (oldest == null) {
+			return null;
+		}
+
+		CustomResponse page;
+		try {
+			page = oldest.join();
+		} catch (CompletionException e) {
+			close();
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+		int statusCode = page.getStatusCode();
+		boolean success = statusCode >= 200 && statusCode < 300;
+		int rows = page.getColumns() != null ? page.getColumns().rowCount() : 0;
+		if (!success || rows < pageSize) {
+			close();
+		}
+		return success && rows == 0 ? null : page;
+	}
+
+	static String withoutPaging(String endpoint) {
+		int query = endpoint.indexOf('?');
+		if (query < 0) {
+			return endpoint;
+		}
+		StringBuilder kept = new StringBuilder(endpoint.substring(0, query));
+		char separator = '?';
+		for (String parameter : endpoint.substring(query + 1).split("&")) {
+			if (parameter.isEmpty() || parameter.startsWith("limit=") || parameter.startsWith("offset=")) {
+				continue;
+			}
+			kept.append(separator).append(parameter);
+			separator = '&';
+		}
+		return kept.toString();
+	}
+}
@@ -0,0 +1,178 @@
+package rest;
+
+import restMetrics.Phase;
+
+/**
+ * Where the time of one API call went, phase by phase (see {@link Phase}).
+ *
+ * <p>
+ * A call is timed on the thread that makes it: {@link ApiUtil} starts the
+ * clock, the pooled HTTP client stamps connection setup, request send and
+ * response headers, {@link MetricsFilter} stamps the end of the body download
+ * and {@link ExtractionPlan} finishes the breakdown once the
+ * {@link CustomResponse} is built. Phases that did not happen, such as
+ * connecting on a reused connection, are 0.
+ */
+public final class RequestTiming {
+
+	private static final ThreadLocal<Recorder> CURRENT = new ThreadLocal<>();
+
+	private final long[] phaseNanos;
+	private final boolean newConnection;
+	private final long totalNanos;
+
+	private RequestTiming(long[] phaseNanos, boolean newConnection, long totalNanos) {
+		this.phaseNanos = phaseNanos;
+		this.newConnection = newConnection;
+		this.totalNanos = totalNanos;
+	}
+
+	/**
+	 * @param phase - the phase.
+	 * @return the time spent in that phase in nanoseconds.
+	 */
+	public long getNanos(Phase phase) {
+		return phaseNanos[phase.ordinal()];
+	}
+
+	/**
+	 * @return the time spent per phase in nanoseconds, indexed by
+	 *         {@link Phase#ordinal()}.
+	 */
+	public long[] getPhaseNanos() {
+		return phaseNanos.clone();
+	}
+
+	/**
+	 * @return {@code true} if the call opened a new connection rather than
+	 *         reusing a pooled one.
+	 */
+	public boolean isNewConnection() {
+		return newConnection;
+	}
+
+	/**
+	 * @return the time from the start of the call until the
+	 *         {@link CustomResponse} was ready, in nanoseconds.
+	 */
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder text = new StringBuilder(String.format("total=%.2fms", totalNanos / 1_000_000.0));
+		for (Phase phase : Phase.values()) {
+			text.append(String.format(" %s=%.2fms", phase.label(), getNanos(phase) / 1_000_000.0));
+		}
+		return text.append(newConnection ? " (new connection)" : "").toString();
+	}
+
+	/**
+	 * Starts timing a call on the current thread.
+	 */
+	static void begin() {
+		CURRENT.set(new Recorder(System.nanoTime()));
+	}
+
+	/**
+	 * Marks the end of a session renewal: everything recorded so far on this
+	 * thread, the rejected attempt and the login, becomes the
+	 * {@link Phase#SESSION_RENEWAL} phase and the phases of the repeated call
+	 * are recorded from here.
+	 */
+	static void renewed() {
+		Recorder recorder = CURRENT.get();
+		if (recorder != null) {
+			long now = System.nanoTime();
+			recorder.renewalNanos += now - recorder.attemptAt;
+			recorder.attemptAt = now;
+			recorder.connectNanos = 0;
+			recorder.sentAt = 0;
+			recorder.headersAt = 0;
+			recorder.readAt = 0;
+		}
+	}
+
+	static void connected(long nanos) {
+		Recorder recorder = CURRENT.get();
+		if (recorder != null) {
+			recorder.connectNanos += nanos;
+		}
+	}
+
+	static void requestSent() {
+		Recorder recorder = CURRENT.get();
+		if (recorder != null) {
+			recorder.sentAt = System.nanoTime();
+		}
+	}
+
+	static void headersReceived() {
+		Recorder recorder = CURRENT.get();
+		if (recorder != null) {
+			recorder.headersAt = System.nanoTime();
+		}
+	}
+
+	static void responseRead() {
+		Recorder recorder = CURRENT.get();
+		if (recorder != null) {
+			recorder.readAt = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Completes the timing of the current call and stops recording on this
+	 * thread.
+	 *
+	 * @param extractionStart - when field extraction started.
+	 * @param extractionEnd   - when field extraction ended.
+	 * @param constructionEnd - when the {@link CustomResponse} was built.
+	 * @return the breakdown; only extraction and construction are known if the
+	 *         call was not started with {@link #begin()}.
+	 */
+	static RequestTiming finish(long extractionStart, long extractionEnd, long constructionEnd) {
+		Recorder recorder = CURRENT.get();
+		CURRENT.remove();
+		if (recorder == null) {
+			recorder = new Recorder(extractionStart);
+		}
+
+		long[] nanos = new long[Phase.values().length];
+		nanos[Phase.SESSION_RENEWAL.ordinal()] = recorder.renewalNanos;
+		if (recorder.sentAt != 0) {
+			nanos[Phase.BUILD.ordinal()] = Math.max(0L,
+					recorder.sentAt - recorder.attemptAt - recorder.connectNanos);
+			nanos[Phase.CONNECT.ordinal()] = recorder.connectNanos;
+			if (recorder.headersAt != 0) {
+				nanos[Phase.TIME_TO_FIRST_BYTE.ordinal()] = recorder.headersAt - recorder.sentAt;
+				if (recorder.readAt != 0) {
+					nanos[Phase.DOWNLOAD.ordinal()] = Math.max(0L, recorder.readAt - recorder.headersAt);
+				}
+			}
+		} else {
+			// Not sent over the pooled client, e.g. a canned response.
+			nanos[Phase.BUILD.ordinal()] = (recorder.readAt != 0 ? recorder.readAt : extractionStart)
+					- recorder.attemptAt;
+		}
+		nanos[Phase.EXTRACTION.ordinal()] = extractionEnd - extractionStart;
+		nanos[Phase.CONSTRUCTION.ordinal()] = constructionEnd - extractionEnd;
+		return new RequestTiming(nanos, recorder.connectNanos > 0, constructionEnd - recorder.startedAt);
+	}
+
+	private static final class Recorder {
+		private final long startedAt;
+		private long attemptAt;
+		private long renewalNanos;
+		private long connectNanos;
+		private long sentAt;
+		private long headersAt;
+		private long readAt;
+
+		private Recorder(long startedAt) {
+			this.startedAt = startedAt;
+			this.attemptAt = startedAt;
+		}
+	}
+}
@@ -0,0 +1,385 @@
+package rest;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import restConfig.ConfigManager;
+import restConfig.ConfigSnapshot;
+import restMetrics.ApiMetrics;
+
+/**
+ * Opt-in client-side cache for the GET calls of {@link ApiUtil}.
+ *
+ * <p>
+ * Reference data such as employment statuses, job titles or leave types does
+ * not change during a run, yet every call downloads and parses it again. With
+ * the cache enabled, a successful GET under <code>/api/</code> is kept for a
+ * time-to-live; until then the same URL is answered from memory, together
+ * with the columns its {@link ExtractionPlan} already extracted, so a repeated
+ * lookup costs one map hit. Once the entry is stale it is revalidated with
+ * <code>If-None-Match</code>/<code>If-Modified-Since</code> when the server
+ * sent an <code>ETag</code> or <code>Last-Modified</code>; a 304 renews the
+ * entry without a download.
+ *
+ * <p>
+ * Any PUT, POST, PATCH or DELETE drops the cached entries of its resource
+ * family, i.e. its path without trailing ids: a PUT to
+ * <code>/pim/custom-fields/7</code> invalidates every cached
+ * <code>/pim/custom-fields</code> URL. Entries are evicted in least recently
+ * used order once there are more than <code>maxEntries</code> of them or their
+ * bodies exceed <code>maxBytes</code> together.
+ *
+ * <p>
+ * Entries are keyed by the <code>orangehrm</code> session cookie as well as
+ * the URL, so a request with an expired or foreign session never gets another
+ * session's 200 and still sees the server's 401. Requests without a session
+ * cookie, and requests that send <code>Cache-Control: no-cache</code> such as
+ * the session probe of {@link HttpLogin}, always go to the server. Responses
+ * that set a cookie or say <code>Cache-Control: no-store</code> are never
+ * cached.
+ *
+ * <p>
+ * Configuration properties (see {@link ConfigManager}):
+ * <ul>
+ * <li><code>api.cache.enabled</code> - turns the cache on (default
+ * false)</li>
+ * <li><code>api.cache.ttlSeconds</code> - time an entry is served without
+ * revalidation (default 300)</li>
+ * <li><code>api.cache.maxEntries</code> - maximum cached URLs (default
+ * 256)</li>
+ * <li><code>api.cache.maxBytes</code> - maximum total size of the cached
+ * bodies (default 16 MiB)</li>
+ * </ul>
+ */
+public final class ResponseCache implements Filter {
+
+	private static final String SESSION_COOKIE = "orangehrm";
+	private static final ThreadLocal<Served> SERVED = new ThreadLocal<>();
+
+	private static ResponseCache configured;
+	private static boolean configuredLoaded;
+
+	private final long ttlNanos;
+	private final int maxEntries;
+	private final long maxBytes;
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long totalBytes;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder revalidations = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+
+	/**
+	 * @param ttl        - how long an entry is served without revalidation.
+	 * @param unit       - the unit of {@code ttl}.
+	 * @param maxEntries - maximum number of cached URLs.
+	 * @param maxBytes   - maximum total size of the cached bodies.
+	 */
+	public ResponseCache(long ttl, TimeUnit unit, int maxEntries, long maxBytes) {
+		this.ttlNanos = unit.toNanos(ttl);
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Returns the cache configured by <code>api.cache.*</code>, creating it and
+	 * registering its gauges on first use.
+	 *
+	 * @return the shared cache, or {@code null} if it is not enabled
+	 */
+	public static synchronized ResponseCache fromConfig() {
+		if (configuredLoaded) {
+			return configured;
+		}
+		configuredLoaded = true;
+
+		ConfigSnapshot config = ConfigManager.snapshot();
+		if (!config.getBoolean("api.cache.enabled", false)) {
+			return null;
+		}
+		ResponseCache cache = new ResponseCache(config.getLong("api.cache.ttlSeconds", 300L), TimeUnit.SECONDS,
+				config.getInt("api.cache.maxEntries", 256), config.getLong("api.cache.maxBytes", 16L << 20));
+		ApiMetrics.gauge("orangehrm_api_cache_hits", "GET calls answered from the response cache.",
+				() -> cache.getHits());
+		ApiMetrics.gauge("orangehrm_api_cache_misses", "Cacheable GET calls that went to the server.",
+				() -> cache.getMisses());
+		ApiMetrics.gauge("orangehrm_api_cache_revalidations", "Stale cache entries renewed by a 304 response.",
+				() -> cache.getRevalidations());
+		ApiMetrics.gauge("orangehrm_api_cache_entries", "URLs currently held by the response cache.",
+				() -> cache.size());
+		configured = cache;
+		return cache;
+	}
+
+	@Override
+	public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+			FilterContext ctx) {
+		SERVED.remove();
+		String method = requestSpec.getMethod();
+		String uri = requestSpec.getURI();
+		String path = path(uri);
+
+		if (!"GET".equalsIgnoreCase(method)) {
+			try {
+				return ctx.next(requestSpec, responseSpec);
+			} finally {
+				invalidate(path);
+			}
+		}
+		String session = requestSpec.getCookies().getValue(SESSION_COOKIE);
+		if (!path.contains("/api/") || session == null || noCache(requestSpec)) {
+			return ctx.next(requestSpec, responseSpec);
+		}
+
+		String key = session + " " + uri;
+		Entry cached;
+		synchronized (this) {
+			cached = entries.get(key);
+		}
+		long now = System.nanoTime();
+		if (cached != null && now - cached.validatedAt < ttlNanos) {
+			hits.increment();
+			return serve(cached);
+		}
+
+		if (cached != null && cached.hasValidators()) {
+			if (cached.etag != null) {
+				requestSpec.header("If-None-Match", cached.etag);
+			}
+			if (cached.lastModified != null) {
+				requestSpec.header("If-Modified-Since", cached.lastModified);
+			}
+		}
+		Response response = ctx.next(requestSpec, responseSpec);
+
+		if (cached != null && response.getStatusCode() == 304) {
+			revalidations.increment();
+			cached.validatedAt = System.nanoTime();
+			return serve(cached);
+		}
+		misses.increment();
+		if (!cacheable(response)) {
+			return response;
+		}
+
+		List<Header> headers = new ArrayList<>();
+		for (Header header : response.getHeaders()) {
+			headers.add(header);
+		}
+		Entry entry = new Entry(key, path, response.getStatusCode(), response.getStatusLine(), headers,
+				response.asByteArray(), response.getHeader("ETag"), response.getHeader("Last-Modified"));
+		store(entry);
+		SERVED.set(new Served(response, entry));
+		return response;
+	}
+
+	/**
+	 * Drops every cached entry of the resource family of a path.
+	 *
+	 * @param path - a request path or URL, e.g. the target of a PUT.
+	 */
+	public synchronized void invalidate(String path) {
+		String family = family(path(path));
+		Iterator<Entry> iterator = entries.values().iterator();
+		while (iterator.hasNext()) {
+			Entry entry = iterator.next();
+			if (entry.path.equals(family) || entry.path.startsWith(family + "/")) {
+				iterator.remove();
+				totalBytes -= entry.body.length;
+				invalidations.increment();
+			}
+		}
+	}
+
+	/**
+	 * Drops every cached entry.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		totalBytes = 0;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized long getTotalBytes() {
+		return totalBytes;
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	public long getRevalidations() {
+		return revalidations.sum();
+	}
+
+	public long getInvalidations() {
+		return invalidations.sum();
+	}
+
+	/**
+	 * Returns the columns extracted by a plan from a response this cache just
+	 * served or stored on the current thread, extracting them only the first
+	 * time per entry.
+	 *
+	 * @param response  - the response being extracted.
+	 * @param plan      - the extraction plan.
+	 * @param extractor - extracts the columns when they are not cached yet.
+	 * @return the cached or freshly extracted columns
+	 */
+	static ColumnarData columns(Response response, ExtractionPlan plan, Supplier<ColumnarData> extractor) {
+		Served served = SERVED.get();
+		SERVED.remove();
+		if (served == null || served.response.get() != response) {
+			return extractor.get();
+		}
+		return served.entry.columns.computeIfAbsent(plan, key -> extractor.get());
+	}
+
+	private Response serve(Entry entry) {
+		Response response = new ResponseBuilder().setStatusCode(entry.statusCode).setStatusLine(entry.statusLine)
+				.setHeaders(new Headers(entry.headers)).setBody(entry.body).setContentType(entry.contentType())
+				.build();
+		SERVED.set(new Served(response, entry));
+		return response;
+	}
+
+	private synchronized void store(Entry entry) {
+		if (entry.body.length > maxBytes) {
+			return;
+		}
+		Entry previous = entries.put(entry.key, entry);
+		if (previous != null) {
+			totalBytes -= previous.body.length;
+		}
+		totalBytes += entry.body.length;
+
+		Iterator<Entry> eldest = entries.values().iterator();
+		while ((entries.size() > maxEntries || totalBytes > maxBytes) && eldest.hasNext()) {
+			totalBytes -= eldest.next().body.length;
+			eldest.remove();
+		}
+	}
+
+	private static boolean noCache(FilterableRequestSpecification requestSpec) {
+		String cacheControl = requestSpec.getHeaders().getValue("Cache-Control");
+		return cacheControl != null && cacheControl.toLowerCase().contains("no-cache");
+	}
+
+	private static boolean cacheable(Response response) {
+		if (response.getStatusCode() != 200 || response.getHeader("Set-Cookie") != null) {
+			return false;
+		}
+		String cacheControl = response.getHeader("Cache-Control");
+		return cacheControl == null || !cacheControl.toLowerCase().contains("no-store");
+	}
+
+	private static String path(String uri) {
+		int start = uri.indexOf("://");
+		start = start < 0 ? 0 : uri.indexOf('/', start + 3);
+		if (start < 0) {
+			return "/";
+		}
+		int end = uri.indexOf('?', start);
+		return end < 0 ? uri.substring(start) : uri.substring(start, end);
+	}
+
+	// "/pim/custom-fields/7" and "/pim/custom-fields" are one family.
+	private static String family(String path) {
+		String family = path;
+		while (family.endsWith("/")) {
+			family = family.substring(0, family.length() - 1);
+		}
+		int slash = family.lastIndexOf('/');
+		while (slash >= 0 && isId(family.substring(slash + 1))) {
+			family = family.substring(0, slash);
+			slash = family.lastIndexOf('/');
+		}
+		return family;
+	}
+
+	private static boolean isId(String segment) {
+		if (segment.isEmpty()) {
+			return false;
+		}
+		for (int i = 0; i < segment.length(); i++) {
+			if (!Character.isDigit(segment.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static final class Entry {
+		final String key;
+		final String path;
+		final int statusCode;
+		final String statusLine;
+		final List<Header> headers;
+		final byte[] body;
+		final String etag;
+		final String lastModified;
+		final Map<ExtractionPlan, ColumnarData> columns = new ConcurrentHashMap<>();
+		volatile long validatedAt = System.nanoTime();
+
+		Entry(String key, String path, int statusCode, String statusLine, List<Header> headers, byte[] body,
+				String etag, String lastModified) {
+			this.key = key;
+			this.path = path;
+			this.statusCode = statusCode;
+			this.statusLine = statusLine;
+			this.headers = headers;
+			this.body = body != null ? body : new byte[0];
+			this.etag = etag;
+			this.lastModified = lastModified;
+		}
+
+		boolean hasValidators() {
+			return etag != null || lastModified != null;
+		}
+
+		String contentType() {
+			for (Header header : headers) {
+				if (header.getName().equalsIgnoreCase("Content-Type")) {
+					return header.getValue();
+				}
+			}
+			return "application/json";
+		}
+	}
+
+	// Only weakly holds the response: a caller that never extracts columns,
+	// such as the session probe, must not keep it alive on a pooled thread.
+	private static final class Served {
+		final WeakReference<Response> response;
+		final Entry entry;
+
+		Served(Response response, Entry entry) {
+			this.response = new WeakReference<>(response);
+			this.entry = entry;
+		}
+	}
+}
@@ -0,0 +1,244 @@
+package rest;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import restConfig.ConfigManager;
+import restConfig.ConfigSnapshot;
+
+/**
+ * Pool of independently authenticated OrangeHRM sessions.
+ *
+ * <p>
+ * OrangeHRM serialises requests that share one PHP session on the session
+ * lock, so parallel workers using a single <code>orangehrm</code> cookie queue
+ * up behind each other on the server. This pool logs in up to <i>N</i>
+ * separate sessions and hands each worker thread or virtual user its own for
+ * the duration of a lease:
+ *
+ * <pre>
+ * try (SessionPool.Session session = pool.lease()) {
+ * 	apiUtil.GetPimEmp(endpoint, session.cookie(), null);
+ * }
+ * </pre>
+ *
+ * <p>
+ * Sessions are created lazily, up to the pool size. On lease, a session that
+ * has not been checked for <code>session.pool.healthCheckSeconds</code> is
+ * probed and logged in again if the server rejects it; a session older than
+ * <code>session.pool.maxAgeMinutes</code> is recycled without probing. A
+ * worker that sees a 401 should call {@link Session#invalidate()} before
+ * closing its lease.
+ */
+public class SessionPool implements AutoCloseable {
+
+	private final int size;
+	private final Supplier<String> login;
+	private final Predicate<String> healthCheck;
+	private final long healthCheckMillis;
+	private final long maxAgeMillis;
+
+	private final LinkedBlockingQueue<Session> idle = new LinkedBlockingQueue<>();
+	private final AtomicInteger created = new AtomicInteger();
+	private volatile boolean closed;
+
+	/**
+	 * @param size              - maximum number of sessions.
+	 * @param login             - logs in and returns a fresh cookie value.
+	 * @param healthCheck       - returns {@code true} if a cookie is still
+	 *                          accepted by the server.
+	 * @param healthCheckMillis - minimum time between two probes of one session.
+	 * @param maxAgeMillis      - sessions older than this are recycled.
+	 */
+	public SessionPool(int size, Supplier<String> login, Predicate<String> healthCheck, long healthCheckMillis,
+			long maxAgeMillis) {
+		if (size < 1) {
+			throw new IllegalArgumentException("Session pool size must be at least 1 but was " + size);
+		}
+		this.size = size;
+		this.login = login;
+		this.healthCheck = healthCheck;
+		this.healthCheckMillis = healthCheckMillis;
+		this.maxAgeMillis = maxAgeMillis;
+	}
+
+	/**
+	 * Creates a pool for the configured <code>base.url</code>,
+	 * <code>username</code> and <code>password</code>, sized by
+	 * <code>session.pool.size</code> (default 4).
+	 *
+	 * @return a new, empty pool
+	 */
+	public static SessionPool fromConfig() {
+		return fromConfig(ConfigManager.snapshot().getInt("session.pool.size", 4));
+	}
+
+	/**
+	 * Creates a pool of the given size for the configured <code>base.url</code>,
+	 * <code>username</code> and <code>password</code>.
+	 *
+	 * @param size - maximum number of sessions.
+	 * @return a new, empty pool
+	 */
+	public static SessionPool fromConfig(int size) {
+		ConfigSnapshot config = ConfigManager.snapshot();
+		String baseUrl = config.get("base.url");
+		String username = config.get("username");
+		String password = config.get("password");
+		return new SessionPool(size, () -> HttpLogin.login(baseUrl, username, password),
+				cookie -> HttpLogin.isSessionValid(baseUrl, cookie),
+				config.getLong("session.pool.healthCheckSeconds", 60L) * 1000L,
+				config.getLong("session.pool.maxAgeMinutes", 30L) * 60_000L);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the number of sessions logged in so far.
+	 */
+	public int created() {
+		return created.get();
+	}
+
+	/**
+	 * @return the number of sessions currently waiting to be leased.
+	 */
+	public int available() {
+		return idle.size();
+	}
+
+	/**
+	 * Leases a session, waiting as long as necessary for one to be released.
+	 *
+	 * @return a healthy session, exclusively owned until it is closed
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public Session lease() throws InterruptedException {
+		return lease(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Leases a session, waiting at most the given time for one to be released.
+	 *
+	 * @param timeout - maximum time to wait.
+	 * @param unit    - unit of the timeout.
+	 *
+	 * @return a healthy session, exclusively owned until it is closed
+	 * @throws InterruptedException  if interrupted while waiting
+	 * @throws IllegalStateException if the pool is closed or no session became
+	 *                               available in time
+	 */
+	public Session lease(long timeout, TimeUnit unit) throws InterruptedException {
+		if (closed) {
+			throw new IllegalStateException("Session pool is closed");
+		}
+		Session session = idle.poll();
+		if (session == null && reserveSlot()) {
+			session = new Session();
+		}
+		if (session == null) {
+			session = idle.poll(timeout, unit);
+			if (session == null) {
+				throw new IllegalStateException("No session available within " + timeout + " " + unit);
+			}
+		}
+		try {
+			session.ensureHealthy();
+		} catch (RuntimeException e) {
+			// Keep the slot usable: the next lease retries the login.
+			session.cookie = null;
+			idle.offer(session);
+			throw e;
+		}
+		session.leased.set(true);
+		return session;
+	}
+
+	/**
+	 * Closes the pool. Leased sessions may still be used and closed, but no new
+	 * lease is granted.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		idle.clear();
+	}
+
+	private boolean reserveSlot() {
+		while (true) {
+			int current = created.get();
+			if (current >= size) {
+				return false;
+			}
+			if (created.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	// Only the first close of a lease returns the session; queuing it twice
+	// would hand one PHP session to two workers.
+	private void release(Session session) {
+		if (session.leased.compareAndSet(true, false) && !closed) {
+			idle.offer(session);
+		}
+	}
+
+	/**
+	 * One authenticated session. Closing it returns it to the pool; closing it
+	 * again before the next lease has no effect.
+	 */
+	public final class Session implements AutoCloseable {
+		private final AtomicBoolean leased = new AtomicBoolean();
+		private volatile String cookie;
+		private long loggedInAt;
+		private long checkedAt;
+
+		private Session() {
+		}
+
+		/**
+		 * @return the <code>orangehrm</code> cookie value of this session.
+		 */
+		public String cookie() {
+			return cookie;
+		}
+
+		/**
+		 * Marks the session as rejected by the server; it is logged in again before
+		 * it is next leased.
+		 */
+		public void invalidate() {
+			cookie = null;
+		}
+
+		@Override
+		public void close() {
+			release(this);
+		}
+
+		private void ensureHealthy() {
+			long now = System.currentTimeMillis();
+			if (cookie != null && now - loggedInAt > maxAgeMillis) {
+				cookie = null;
+			}
+			if (cookie != null && now - checkedAt > healthCheckMillis) {
+				if (!healthCheck.test(cookie)) {
+					cookie = null;
+				}
+				checkedAt = now;
+			}
+			if (cookie == null) {
+				cookie = login.get();
+				loggedInAt = now;
+				checkedAt = now;
+			}
+		}
+	}
+}
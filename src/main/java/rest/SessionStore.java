@@ -0,0 +1,214 @@
+package rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import restConfig.ConfigManager;
+import restConfig.ConfigSnapshot;
+
+/**
+ * Persistent cache of the <code>orangehrm</code> session cookie.
+ *
+ * <p>
+ * The cookie and the time it was acquired are saved to a local properties
+ * file. On first use the saved cookie is checked with one cheap authenticated
+ * GET and reused while the server still accepts it, so repeated local and CI
+ * runs log in only when the session has actually expired.
+ *
+ * <p>
+ * Callers that see a 401 pass the cookie they used to
+ * {@link #refresh(String)}; every {@link ApiUtil} call does so for cookies
+ * of the default store and retries the call once. Only the first of many racing
+ * threads logs in again; the others get the new cookie as soon as it is
+ * available.
+ *
+ * <p>
+ * Configuration properties (see {@link ConfigManager}):
+ * <ul>
+ * <li><code>session.store.file</code> - cache file (default: a file per base
+ * URL and user in <code>java.io.tmpdir</code>)</li>
+ * <li><code>session.maxAgeMinutes</code> - cached cookies older than this are
+ * not even probed (default 120)</li>
+ * </ul>
+ */
+public class SessionStore {
+
+	private static volatile SessionStore defaultStore;
+
+	private final String baseUrl;
+	private final String username;
+	private final Path file;
+	private final long maxAgeMillis;
+	private final Supplier<String> login;
+
+	private volatile String cookie;
+	private final Set<String> issued = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Creates a store that logs in with {@link HttpLogin} when needed.
+	 *
+	 * @param baseUrl  - the OrangeHRM base URL.
+	 * @param username - the login user name.
+	 * @param password - the login password.
+	 */
+	public SessionStore(String baseUrl, String username, String password) {
+		this(baseUrl, username, () -> HttpLogin.login(baseUrl, username, password));
+	}
+
+	/**
+	 * Creates a store that obtains new cookies from the given login action.
+	 *
+	 * @param baseUrl  - the OrangeHRM base URL.
+	 * @param username - the login user name, used to key the cache file.
+	 * @param login    - returns a fresh session cookie value.
+	 */
+	public SessionStore(String baseUrl, String username, Supplier<String> login) {
+		ConfigSnapshot config = ConfigManager.snapshot();
+		this.baseUrl = baseUrl;
+		this.username = username;
+		this.login = login;
+		this.maxAgeMillis = config.getLong("session.maxAgeMinutes", 120L) * 60_000L;
+		String configuredFile = config.get("session.store.file");
+		this.file = configuredFile != null ? Paths.get(configuredFile)
+				: Paths.get(System.getProperty("java.io.tmpdir"),
+						"orangehrm-session-" + Integer.toHexString((baseUrl + "|" + username).hashCode())
+								+ ".properties");
+	}
+
+	/**
+	 * @return the store for the configured <code>base.url</code>,
+	 *         <code>username</code> and <code>password</code>.
+	 */
+	public static SessionStore getDefault() {
+		if (defaultStore == null) {
+			synchronized (SessionStore.class) {
+				if (defaultStore == null) {
+					defaultStore = new SessionStore(ConfigManager.getProperty("base.url"),
+							ConfigManager.getProperty("username"), ConfigManager.getProperty("password"));
+				}
+			}
+		}
+		return defaultStore;
+	}
+
+	/**
+	 * Returns a session cookie, reusing the in-memory or saved cookie when it is
+	 * still valid and logging in otherwise.
+	 *
+	 * @return the <code>orangehrm</code> cookie value.
+	 */
+	public String getCookie() {
+		String current = cookie;
+		if (current != null) {
+			return current;
+		}
+		synchronized (this) {
+			if (cookie == null) {
+				String saved = loadSaved();
+				cookie = saved != null && isValid(saved) ? saved : loginAndSave();
+				issued.add(cookie);
+			}
+			return cookie;
+		}
+	}
+
+	/**
+	 * Replaces a cookie the server rejected. If another thread already replaced
+	 * it, the newer cookie is returned without logging in again.
+	 *
+	 * @param staleCookie - the cookie value that was rejected.
+	 * @return a valid cookie value.
+	 */
+	public synchronized String refresh(String staleCookie) {
+		if (cookie != null && !cookie.equals(staleCookie)) {
+			return cookie;
+		}
+		cookie = loginAndSave();
+		issued.add(cookie);
+		return cookie;
+	}
+
+	/**
+	 * @param candidate - a cookie value.
+	 * @return {@code true} if this store ever handed out that cookie, i.e. a
+	 *         401 on it may be answered with {@link #refresh(String)}.
+	 */
+	public boolean issued(String candidate) {
+		return candidate != null && issued.contains(candidate);
+	}
+
+	/**
+	 * @return the default store if {@link #getDefault()} already created it,
+	 *         otherwise {@code null}.
+	 */
+	static SessionStore existingDefault() {
+		return defaultStore;
+	}
+
+	/**
+	 * Probes the cookie with one small authenticated GET.
+	 *
+	 * @param candidate - the cookie value to check.
+	 * @return {@code true} if the server accepts the cookie.
+	 */
+	public boolean isValid(String candidate) {
+		return HttpLogin.isSessionValid(baseUrl, candidate);
+	}
+
+	private String loginAndSave() {
+		String fresh = login.get();
+		save(fresh);
+		return fresh;
+	}
+
+	private String loadSaved() {
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		Properties props = new Properties();
+		try (InputStream in = Files.newInputStream(file)) {
+			props.load(in);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+		if (!baseUrl.equals(props.getProperty("baseUrl")) || !username.equals(props.getProperty("username"))) {
+			return null;
+		}
+		long acquiredAt = Long.parseLong(props.getProperty("acquiredAt", "0"));
+		if (System.currentTimeMillis() - acquiredAt > maxAgeMillis) {
+			return null;
+		}
+		return props.getProperty("cookie");
+	}
+
+	// Written to a temporary file first and moved into place, so a concurrent
+	// reader in another JVM never sees a half-written file.
+	private void save(String value) {
+		Properties props = new Properties();
+		props.setProperty("baseUrl", baseUrl);
+		props.setProperty("username", username);
+		props.setProperty("cookie", value);
+		props.setProperty("acquiredAt", String.valueOf(System.currentTimeMillis()));
+		try {
+			Path directory = file.toAbsolutePath().getParent();
+			Files.createDirectories(directory);
+			Path temp = Files.createTempFile(directory, "orangehrm-session", ".tmp");
+			try (OutputStream out = Files.newOutputStream(temp)) {
+				props.store(out, "orangehrm session cookie cache");
+			}
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+}
@@ -0,0 +1,320 @@
+package restCassette;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * File of recorded request/response pairs with an index for constant-time
+ * lookup by {@link RequestFingerprint}.
+ *
+ * <p>
+ * Layout: a header (magic, version), then one length-prefixed record per
+ * response, appended as it is recorded, then an index that maps every
+ * fingerprint to the offsets of its records, and a trailer pointing at the
+ * index. The index is written on {@link #close()}; if a recording was cut
+ * short and has no trailer, replay rebuilds the index with one sequential
+ * scan. Replay keeps only the index in memory and reads each record with one
+ * positional read, so a large cassette costs little heap and concurrent
+ * lookups do not block each other.
+ *
+ * <p>
+ * When the same request was recorded more than once, e.g. a GET before and
+ * after a PUT, replay returns the responses in recorded order and then keeps
+ * returning the last one.
+ */
+public final class Cassette implements Closeable {
+
+	private static final int MAGIC = 0x4F485243; // "OHRC"
+	private static final int INDEX_MAGIC = 0x4F485249; // "OHRI"
+	private static final short VERSION = 1;
+	private static final int HEADER_LENGTH = 6;
+	private static final int TRAILER_LENGTH = 12;
+	private static final byte RECORD = 1;
+	private static final byte INDEX = 2;
+
+	private final Path file;
+	private final FileChannel channel;
+	private final boolean recording;
+	private final Map<String, List<Long>> offsets = new LinkedHashMap<>();
+	private final Map<String, long[]> index = new HashMap<>();
+	private final Map<String, AtomicInteger> cursors = new HashMap<>();
+	private long position;
+	private boolean closed;
+
+	private Cassette(Path file, FileChannel channel, boolean recording) {
+		this.file = file;
+		this.channel = channel;
+		this.recording = recording;
+	}
+
+	/**
+	 * Creates a new, empty cassette, replacing any existing file.
+	 *
+	 * @param file - the cassette file; missing directories are created.
+	 * @return a cassette open for {@link #record}
+	 * @throws IOException if the file cannot be created
+	 */
+	public static Cassette openForRecording(Path file) throws IOException {
+		Path directory = file.toAbsolutePath().getParent();
+		if (directory != null) {
+			Files.createDirectories(directory);
+		}
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		Cassette cassette = new Cassette(file, channel, true);
+		ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH).putInt(MAGIC).putShort(VERSION);
+		header.flip();
+		cassette.writeFully(header);
+		return cassette;
+	}
+
+	/**
+	 * Opens an existing cassette and loads its index.
+	 *
+	 * @param file - the cassette file.
+	 * @return a cassette open for {@link #next}
+	 * @throws IOException if the file cannot be read or is not a cassette
+	 */
+	public static Cassette openForReplay(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		Cassette cassette = new Cassette(file, channel, false);
+		try {
+			cassette.loadIndex();
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+		return cassette;
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * @return the number of distinct request fingerprints.
+	 */
+	public synchronized int size() {
+		return recording ? offsets.size() : index.size();
+	}
+
+	/**
+	 * Appends one exchange. The record is written to the file immediately, so
+	 * it survives a crash even if the cassette is never closed. An exchange
+	 * that completes after {@link #close()}, e.g. an async request still in
+	 * flight at JVM shutdown, is not stored.
+	 *
+	 * @param exchange - the exchange to store.
+	 * @return {@code false} if the cassette was already closed
+	 * @throws IOException if the record cannot be written
+	 */
+	public synchronized boolean record(RecordedExchange exchange) throws IOException {
+		if (!recording) {
+			throw new IllegalStateException("Cassette " + file + " is not open for recording");
+		}
+		if (closed) {
+			return false;
+		}
+		ByteArrayOutputStream payload = new ByteArrayOutputStream(exchange.getBody().length + 256);
+		DataOutputStream out = new DataOutputStream(payload);
+		out.writeUTF(exchange.getFingerprint());
+		out.writeLong(exchange.getLatencyNanos());
+		out.writeInt(exchange.getStatusCode());
+		out.writeUTF(exchange.getStatusLine() != null ? exchange.getStatusLine() : "");
+		List<String[]> headers = exchange.getHeaders();
+		out.writeShort(headers.size());
+		for (String[] header : headers) {
+			out.writeUTF(header[0]);
+			out.writeUTF(header[1]);
+		}
+		out.writeInt(exchange.getBody().length);
+		out.write(exchange.getBody());
+		out.flush();
+
+		long offset = position;
+		writeFully(frame(RECORD, payload.toByteArray()));
+		offsets.computeIfAbsent(exchange.getFingerprint(), key -> new ArrayList<>()).add(offset);
+		return true;
+	}
+
+	/**
+	 * Returns the next recorded response for a request.
+	 *
+	 * @param fingerprint - see {@link RequestFingerprint}.
+	 * @return the recorded exchange, or {@code null} if the request was never
+	 *         recorded
+	 * @throws IOException if the record cannot be read
+	 */
+	public RecordedExchange next(String fingerprint) throws IOException {
+		long offset;
+		synchronized (this) {
+			long[] recorded = index.get(fingerprint);
+			if (recorded == null) {
+				return null;
+			}
+			int call = cursors.get(fingerprint).getAndIncrement();
+			offset = recorded[Math.min(call, recorded.length - 1)];
+		}
+		return parse(readFrame(offset));
+	}
+
+	/**
+	 * Writes the index and closes the file. Closing a replay cassette only
+	 * releases the file.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			if (recording) {
+				writeIndex();
+			}
+		} finally {
+			channel.close();
+		}
+	}
+
+	private void writeIndex() throws IOException {
+		ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(payload);
+		out.writeInt(offsets.size());
+		for (Map.Entry<String, List<Long>> entry : offsets.entrySet()) {
+			out.writeUTF(entry.getKey());
+			out.writeInt(entry.getValue().size());
+			for (long offset : entry.getValue()) {
+				out.writeLong(offset);
+			}
+		}
+		out.flush();
+
+		long indexOffset = position;
+		writeFully(frame(INDEX, payload.toByteArray()));
+		ByteBuffer trailer = ByteBuffer.allocate(TRAILER_LENGTH).putLong(indexOffset).putInt(INDEX_MAGIC);
+		trailer.flip();
+		writeFully(trailer);
+		channel.force(false);
+	}
+
+	private void loadIndex() throws IOException {
+		long size = channel.size();
+		ByteBuffer header = readAt(0, HEADER_LENGTH);
+		if (header.getInt() != MAGIC) {
+			throw new IOException(file + " is not a cassette");
+		}
+		if (header.getShort() != VERSION) {
+			throw new IOException(file + " has an unsupported cassette version");
+		}
+
+		if (size >= HEADER_LENGTH + TRAILER_LENGTH) {
+			ByteBuffer trailer = readAt(size - TRAILER_LENGTH, TRAILER_LENGTH);
+			long indexOffset = trailer.getLong();
+			if (trailer.getInt() == INDEX_MAGIC && indexOffset >= HEADER_LENGTH && indexOffset < size) {
+				DataInputStream in = new DataInputStream(new ByteArrayInputStream(readFrame(indexOffset)));
+				int keys = in.readInt();
+				for (int i = 0; i < keys; i++) {
+					String fingerprint = in.readUTF();
+					long[] recorded = new long[in.readInt()];
+					for (int j = 0; j < recorded.length; j++) {
+						recorded[j] = in.readLong();
+					}
+					put(fingerprint, recorded);
+				}
+				return;
+			}
+		}
+		scan(size);
+	}
+
+	// Rebuilds the index of a cassette whose recording was not closed; a record
+	// cut off by the crash ends the scan.
+	private void scan(long size) throws IOException {
+		Map<String, List<Long>> found = new LinkedHashMap<>();
+		long offset = HEADER_LENGTH;
+		while (offset + 5 <= size) {
+			ByteBuffer frame = readAt(offset, 5);
+			byte type = frame.get();
+			int length = frame.getInt();
+			if (type != RECORD || length < 0 || offset + 5 + length > size) {
+				break;
+			}
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(readFrame(offset)));
+			found.computeIfAbsent(in.readUTF(), key -> new ArrayList<>()).add(offset);
+			offset += 5 + length;
+		}
+		for (Map.Entry<String, List<Long>> entry : found.entrySet()) {
+			long[] recorded = new long[entry.getValue().size()];
+			for (int i = 0; i < recorded.length; i++) {
+				recorded[i] = entry.getValue().get(i);
+			}
+			put(entry.getKey(), recorded);
+		}
+	}
+
+	private void put(String fingerprint, long[] recorded) {
+		index.put(fingerprint, recorded);
+		cursors.put(fingerprint, new AtomicInteger());
+	}
+
+	private static RecordedExchange parse(byte[] payload) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+		String fingerprint = in.readUTF();
+		long latencyNanos = in.readLong();
+		int statusCode = in.readInt();
+		String statusLine = in.readUTF();
+		int headerCount = in.readUnsignedShort();
+		List<String[]> headers = new ArrayList<>(headerCount);
+		for (int i = 0; i < headerCount; i++) {
+			headers.add(new String[] { in.readUTF(), in.readUTF() });
+		}
+		byte[] body = new byte[in.readInt()];
+		in.readFully(body);
+		return new RecordedExchange(fingerprint, latencyNanos, statusCode, statusLine, headers, body);
+	}
+
+	private static ByteBuffer frame(byte type, byte[] payload) {
+		ByteBuffer frame = ByteBuffer.allocate(5 + payload.length).put(type).putInt(payload.length).put(payload);
+		frame.flip();
+		return frame;
+	}
+
+	private byte[] readFrame(long offset) throws IOException {
+		int length = readAt(offset + 1, 4).getInt();
+		return readAt(offset + 5, length).array();
+	}
+
+	private ByteBuffer readAt(long offset, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, offset + buffer.position()) < 0) {
+				throw new EOFException("Unexpected end of cassette " + file);
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	private void writeFully(ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer);
+		}
+	}
+}
@@ -0,0 +1,213 @@
+package restCassette;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import restConfig.ConfigManager;
+import restConfig.ConfigSnapshot;
+
+/**
+ * RestAssured filter that records every response into a {@link Cassette}, or
+ * answers every request from one without touching the network.
+ *
+ * <p>
+ * Configuration properties (see {@link ConfigManager}):
+ * <ul>
+ * <li><code>api.cassette</code> - <code>off</code> (default),
+ * <code>record</code> or <code>replay</code></li>
+ * <li><code>api.cassette.file</code> - the cassette (default
+ * <code>cassettes/orangehrm.cassette</code> under <code>user.dir</code>)</li>
+ * <li><code>api.cassette.timeScale</code> - replayed responses are delayed by
+ * the recorded latency times this factor; 1 replays the original timing, 0
+ * answers immediately (default 1)</li>
+ * </ul>
+ *
+ * <p>
+ * A request that is not on the cassette fails with an
+ * {@link IllegalStateException} naming its fingerprint, rather than silently
+ * going to the network.
+ */
+public final class CassetteFilter implements Filter {
+
+	/**
+	 * What the filter does with each request.
+	 */
+	public enum Mode {
+		RECORD, REPLAY
+	}
+
+	private static CassetteFilter configured;
+	private static boolean configuredLoaded;
+
+	private final Cassette cassette;
+	private final Mode mode;
+	private final double timeScale;
+
+	/**
+	 * @param cassette  - a cassette opened for the given mode.
+	 * @param mode      - whether to record or replay.
+	 * @param timeScale - factor applied to recorded latencies on replay.
+	 */
+	public CassetteFilter(Cassette cassette, Mode mode, double timeScale) {
+		this.cassette = cassette;
+		this.mode = mode;
+		this.timeScale = Math.max(0, timeScale);
+	}
+
+	/**
+	 * Returns the filter for the configured <code>api.cassette</code> mode,
+	 * opening the cassette on first use and closing it at JVM shutdown.
+	 *
+	 * @return the shared filter, or {@code null} if cassettes are off
+	 * @throws UncheckedIOException if the cassette cannot be opened
+	 */
+	public static synchronized CassetteFilter fromConfig() {
+		if (configuredLoaded) {
+			return configured;
+		}
+		configuredLoaded = true;
+
+		ConfigSnapshot config = ConfigManager.snapshot();
+		String mode = config.get("api.cassette", "off").trim().toLowerCase();
+		if (mode.isEmpty() || mode.equals("off")) {
+			return null;
+		}
+		String file = config.get("api.cassette.file");
+		Path path = file != null ? Paths.get(file)
+				: Paths.get(System.getProperty("user.dir"), "cassettes", "orangehrm.cassette");
+		double timeScale = Double.parseDouble(config.get("api.cassette.timeScale", "1").trim());
+
+		try {
+			Cassette cassette;
+			if (mode.equals("record")) {
+				cassette = Cassette.openForRecording(path);
+				configured = new CassetteFilter(cassette, Mode.RECORD, timeScale);
+			} else if (mode.equals("replay")) {
+				cassette = Cassette.openForReplay(path);
+				configured = new CassetteFilter(cassette, Mode.REPLAY, timeScale);
+			} else {
+				throw new IllegalArgumentException("api.cassette must be off, record or replay, not " + mode);
+			}
+			System.out.println("Cassette " + mode + ": " + path.toAbsolutePath());
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				try {
+					cassette.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}, "cassette-close"));
+			return configured;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not open cassette " + path, e);
+		}
+	}
+
+	public Mode getMode() {
+		return mode;
+	}
+
+	public Cassette getCassette() {
+		return cassette;
+	}
+
+	@Override
+	public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+			FilterContext ctx) {
+		String fingerprint = RequestFingerprint.of(requestSpec.getMethod(), requestSpec.getURI(),
+				requestBody(requestSpec));
+		try {
+			return mode == Mode.RECORD ? record(fingerprint, requestSpec, responseSpec, ctx) : replay(fingerprint);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cassette " + cassette.getFile() + " failed for " + fingerprint, e);
+		}
+	}
+
+	private Response record(String fingerprint, FilterableRequestSpecification requestSpec,
+			FilterableResponseSpecification responseSpec, FilterContext ctx) throws IOException {
+		long start = System.nanoTime();
+		Response response = ctx.next(requestSpec, responseSpec);
+		byte[] body = response.asByteArray();
+		long latencyNanos = System.nanoTime() - start;
+
+		List<String[]> headers = new ArrayList<>();
+		for (Header header : response.getHeaders()) {
+			headers.add(new String[] { header.getName(), header.getValue() });
+		}
+		if (!cassette.record(new RecordedExchange(fingerprint, latencyNanos, response.getStatusCode(),
+				response.getStatusLine(), headers, body != null ? body : new byte[0]))) {
+			System.out.println("⚠️ Cassette " + cassette.getFile() + " is closed; not recording " + fingerprint);
+		}
+		return response;
+	}
+
+	private Response replay(String fingerprint) throws IOException {
+		RecordedExchange exchange = cassette.next(fingerprint);
+		if (exchange == null) {
+			throw new IllegalStateException("No recorded response for " + fingerprint + " in " + cassette.getFile());
+		}
+		long delayNanos = (long) (exchange.getLatencyNanos() * timeScale);
+		if (delayNanos > 0) {
+			try {
+				TimeUnit.NANOSECONDS.sleep(delayNanos);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		List<Header> headers = new ArrayList<>();
+		String contentType = null;
+		for (String[] header : exchange.getHeaders()) {
+			headers.add(new Header(header[0], header[1]));
+			if (header[0].equalsIgnoreCase("Content-Type")) {
+				contentType = header[1];
+			}
+		}
+		ResponseBuilder builder = new ResponseBuilder().setStatusCode(exchange.getStatusCode())
+				.setStatusLine(exchange.getStatusLine()).setHeaders(new Headers(headers))
+				.setBody(exchange.getBody());
+		if (contentType != null) {
+			builder.setContentType(contentType);
+		}
+		return builder.build();
+	}
+
+	// Form posts have no body of their own; their parameters, sorted by name,
+	// stand in for it so that two logins with different credentials differ.
+	private static byte[] requestBody(FilterableRequestSpecification requestSpec) {
+		Object body = requestSpec.getBody();
+		if (body instanceof byte[]) {
+			return (byte[]) body;
+		}
+		if (body != null) {
+			return String.valueOf(body).getBytes(StandardCharsets.UTF_8);
+		}
+		Map<String, String> formParams = requestSpec.getFormParams();
+		if (formParams == null || formParams.isEmpty()) {
+			return null;
+		}
+		StringBuilder form = new StringBuilder();
+		for (Map.Entry<String, String> param : new TreeMap<>(formParams).entrySet()) {
+			if (form.length() > 0) {
+				form.append('&');
+			}
+			form.append(param.getKey()).append('=').append(param.getValue());
+		}
+		return form.toString().getBytes(StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,63 @@
+package restCassette;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One recorded response, stored in a {@link Cassette} under the fingerprint of
+ * the request that produced it.
+ */
+public final class RecordedExchange {
+
+	private final String fingerprint;
+	private final long latencyNanos;
+	private final int statusCode;
+	private final String statusLine;
+	private final List<String[]> headers;
+	private final byte[] body;
+
+	/**
+	 * @param fingerprint  - see {@link RequestFingerprint}.
+	 * @param latencyNanos - how long the live call took.
+	 * @param statusCode   - the response status code.
+	 * @param statusLine   - the response status line.
+	 * @param headers      - the response headers as name/value pairs.
+	 * @param body         - the response body.
+	 */
+	public RecordedExchange(String fingerprint, long latencyNanos, int statusCode, String statusLine,
+			List<String[]> headers, byte[] body) {
+		this.fingerprint = fingerprint;
+		this.latencyNanos = latencyNanos;
+		this.statusCode = statusCode;
+		this.statusLine = statusLine;
+		this.headers = new ArrayList<>(headers);
+		this.body = body;
+	}
+
+	public String getFingerprint() {
+		return fingerprint;
+	}
+
+	public long getLatencyNanos() {
+		return latencyNanos;
+	}
+
+	public int getStatusCode() {
+		return statusCode;
+	}
+
+	public String getStatusLine() {
+		return statusLine;
+	}
+
+	/**
+	 * @return the response headers as name/value pairs, in recorded order.
+	 */
+	public List<String[]> getHeaders() {
+		return new ArrayList<>(headers);
+	}
+
+	public byte[] getBody() {
+		return body;
+	}
+}
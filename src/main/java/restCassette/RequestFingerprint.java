@@ -0,0 +1,92 @@
+package restCassette;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Identity of a request in a {@link Cassette}: method, normalised URL and a
+ * hash of the body.
+ *
+ * <p>
+ * The URL is reduced to its path and its query parameters sorted by name, so
+ * a cassette recorded against one host replays against any other and
+ * <code>?limit=50&amp;offset=0</code> matches <code>?offset=0&amp;limit=50</code>.
+ * Cookies and other headers are not part of the fingerprint, because the
+ * session differs between recording and replay.
+ */
+public final class RequestFingerprint {
+
+	private RequestFingerprint() {
+	}
+
+	/**
+	 * @param method - the HTTP method.
+	 * @param uri    - the full or relative request URI.
+	 * @param body   - the request body, or {@code null}.
+	 * @return the fingerprint, e.g.
+	 *         <code>GET /web/index.php/api/v2/pim/employees?limit=50 -</code>
+	 */
+	public static String of(String method, String uri, byte[] body) {
+		return method.toUpperCase() + " " + normaliseUrl(uri) + " " + bodyHash(body);
+	}
+
+	static String normaliseUrl(String uri) {
+		String path;
+		String query;
+		try {
+			URI parsed = URI.create(uri);
+			path = parsed.getRawPath();
+			query = parsed.getRawQuery();
+		} catch (IllegalArgumentException e) {
+			int mark = uri.indexOf('?');
+			path = mark < 0 ? uri : uri.substring(0, mark);
+			query = mark < 0 ? null : uri.substring(mark + 1);
+		}
+		if (path == null || path.isEmpty()) {
+			path = "/";
+		}
+		if (query == null || query.isEmpty()) {
+			return path;
+		}
+
+		List<String> parameters = new ArrayList<>();
+		for (String parameter : query.split("&")) {
+			if (!parameter.isEmpty()) {
+				parameters.add(decode(parameter));
+			}
+		}
+		Collections.sort(parameters);
+		return path + "?" + String.join("&", parameters);
+	}
+
+	private static String bodyHash(byte[] body) {
+		if (body == null || body.length == 0) {
+			return "-";
+		}
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+			StringBuilder hex = new StringBuilder(32);
+			for (int i = 0; i < 16; i++) {
+				hex.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String decode(String parameter) {
+		try {
+			return URLDecoder.decode(parameter, StandardCharsets.UTF_8.name());
+		} catch (UnsupportedEncodingException | IllegalArgumentException e) {
+			return parameter;
+		}
+	}
+}
@@ -1,22 +1,184 @@
 package restConfig;
 
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Properties;
 
+/**
+ * Single source of configuration for the framework.
+ *
+ * <p>
+ * The configuration is loaded once into an immutable {@link ConfigSnapshot}
+ * from the following layers, each overriding the previous one:
+ * <ol>
+ * <li><code>config.properties</code> on the classpath</li>
+ * <li>the configuration file, <code>src/main/resources/config.properties</code>
+ * under <code>user.dir</code> unless the <code>config.file</code> system
+ * property names another one</li>
+ * <li>environment variables prefixed with <code>ORANGEHRM_</code> and named
+ * after a key in upper case with dots and dashes replaced by underscores, e.g.
+ * <code>ORANGEHRM_BASE_URL</code> for <code>base.url</code> or
+ * <code>ORANGEHRM_USERNAME</code> for <code>username</code>; they apply to
+ * any key, not only to those in a configuration file. The prefix keeps
+ * variables such as Windows' own <code>USERNAME</code> out of the
+ * configuration</li>
+ * <li>JVM system properties</li>
+ * </ol>
+ *
+ * <p>
+ * Reads go to the current snapshot through a volatile reference and never
+ * lock or touch the disk. When <code>config.watch=true</code> the configuration
+ * file is watched with a {@link WatchService} and every change swaps in a
+ * freshly loaded snapshot atomically.
+ */
 public class ConfigManager {
-	private static Properties props = new Properties();
+
+	private static final String CLASSPATH_RESOURCE = "config.properties";
+	private static final String ENV_PREFIX = "ORANGEHRM_";
+
+	private static final Path CONFIG_FILE = System.getProperty("config.file") != null
+			? Paths.get(System.getProperty("config.file"))
+			: Paths.get(System.getProperty("user.dir"), "src", "main", "resources", "config.properties");
+
+	private static volatile ConfigSnapshot snapshot = load();
+	private static Thread watcher;
 
 	static {
-		try {
-			FileInputStream fis = new FileInputStream("src/main/resources/config.properties");
-			props.load(fis);
+		if (snapshot.getBoolean("config.watch", false)) {
+			startWatching();
+		}
+	}
+
+	public static String getProperty(String key) {
+		return snapshot.get(key);
+	}
+
+	public static String getProperty(String key, String defaultValue) {
+		return snapshot.get(key, defaultValue);
+	}
+
+	/**
+	 * @return the current configuration snapshot; keep a reference to it to read
+	 *         several values that must be consistent with each other.
+	 */
+	public static ConfigSnapshot snapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * Reloads every configuration layer and swaps the new snapshot in.
+	 *
+	 * @return the new snapshot
+	 */
+	public static ConfigSnapshot reload() {
+		snapshot = load();
+		return snapshot;
+	}
+
+	/**
+	 * Starts watching the configuration file on a daemon thread and reloads the
+	 * configuration whenever it is created or modified. Calling this more than
+	 * once has no further effect.
+	 */
+	public static synchronized void startWatching() {
+		if (watcher != null) {
+			return;
+		}
+		Path directory = CONFIG_FILE.toAbsolutePath().getParent();
+		if (directory == null || !Files.isDirectory(directory)) {
+			System.out.println("⚠️ Cannot watch configuration, directory not found: " + directory);
+			return;
+		}
+		watcher = new Thread(() -> watch(directory), "config-watcher");
+		watcher.setDaemon(true);
+		watcher.start();
+	}
+
+	private static void watch(Path directory) {
+		Path fileName = CONFIG_FILE.getFileName();
+		try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+			directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY);
+			while (!Thread.currentThread().isInterrupted()) {
+				WatchKey key = watchService.take();
+				boolean changed = false;
+				for (WatchEvent<?> event : key.pollEvents()) {
+					if (fileName.equals(event.context())) {
+						changed = true;
+					}
+				}
+				if (changed) {
+					reload();
+				}
+				if (!key.reset()) {
+					break;
+				}
+			}
 		} catch (IOException e) {
 			e.printStackTrace();
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			Thread.currentThread().interrupt();
 		}
 	}
 
-	public static String getProperty(String key) {
-		return props.getProperty(key);
+	private static ConfigSnapshot load() {
+		Map<String, String> values = new HashMap<>();
+
+		try (InputStream in = ConfigManager.class.getClassLoader().getResourceAsStream(CLASSPATH_RESOURCE)) {
+			if (in != null) {
+				putAll(values, in);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+
+		if (Files.isRegularFile(CONFIG_FILE)) {
+			try (InputStream in = Files.newInputStream(CONFIG_FILE)) {
+				putAll(values, in);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+
+		Map<String, String> environment = new HashMap<>();
+		for (Map.Entry<String, String> variable : System.getenv().entrySet()) {
+			if (variable.getKey().startsWith(ENV_PREFIX)) {
+				environment.put(variable.getKey().substring(ENV_PREFIX.length()).toUpperCase(Locale.ROOT),
+						variable.getValue());
+			}
+		}
+		for (String key : values.keySet().toArray(new String[0])) {
+			String env = environment.get(ConfigSnapshot.environmentName(key));
+			if (env != null) {
+				values.put(key, env);
+			}
+		}
+
+		Properties system = System.getProperties();
+		for (String key : system.stringPropertyNames()) {
+			values.put(key, system.getProperty(key));
+		}
+
+		return new ConfigSnapshot(values, environment);
+	}
+
+	private static void putAll(Map<String, String> values, InputStream in) throws IOException {
+		Properties props = new Properties();
+		props.load(in);
+		for (String key : props.stringPropertyNames()) {
+			values.put(key, props.getProperty(key));
+		}
 	}
 }
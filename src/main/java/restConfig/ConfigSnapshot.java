@@ -0,0 +1,85 @@
+package restConfig;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable view of the configuration at one point in time.
+ *
+ * <p>
+ * A snapshot is built once by {@link ConfigManager} and never changes, so it
+ * can be read from any number of threads without locking. A reload replaces
+ * the whole snapshot rather than mutating it.
+ *
+ * <p>
+ * A key that is in no configuration file and no system property is looked up
+ * among the <code>ORANGEHRM_</code> environment variables, so such a variable
+ * also sets keys that only have a default in code.
+ */
+public final class ConfigSnapshot {
+
+	private final Map<String, String> values;
+	private final Map<String, String> environment;
+	private final long loadedAtMillis;
+
+	/**
+	 * @param values      - the merged files, overrides and system properties.
+	 * @param environment - the <code>ORANGEHRM_</code> variables by
+	 *                    {@link #environmentName(String)}, without the prefix.
+	 */
+	ConfigSnapshot(Map<String, String> values, Map<String, String> environment) {
+		this.values = Collections.unmodifiableMap(new HashMap<>(values));
+		this.environment = Collections.unmodifiableMap(new HashMap<>(environment));
+		this.loadedAtMillis = System.currentTimeMillis();
+	}
+
+	public String get(String key) {
+		String value = values.get(key);
+		if (value == null && !environment.isEmpty()) {
+			value = environment.get(environmentName(key));
+		}
+		return value;
+	}
+
+	public String get(String key, String defaultValue) {
+		String value = get(key);
+		return value == null ? defaultValue : value;
+	}
+
+	public int getInt(String key, int defaultValue) {
+		String value = get(key);
+		return value == null || value.trim().isEmpty() ? defaultValue : Integer.parseInt(value.trim());
+	}
+
+	public long getLong(String key, long defaultValue) {
+		String value = get(key);
+		return value == null || value.trim().isEmpty() ? defaultValue : Long.parseLong(value.trim());
+	}
+
+	public boolean getBoolean(String key, boolean defaultValue) {
+		String value = get(key);
+		return value == null || value.trim().isEmpty() ? defaultValue : Boolean.parseBoolean(value.trim());
+	}
+
+	/**
+	 * @return every key and value of this snapshot, read-only; environment
+	 *         variables for keys that are in no file are not included.
+	 */
+	public Map<String, String> asMap() {
+		return values;
+	}
+
+	/**
+	 * @return the time this snapshot was loaded, in epoch milliseconds.
+	 */
+	public long getLoadedAtMillis() {
+		return loadedAtMillis;
+	}
+
+	// "api.pool.maxTotal" is ORANGEHRM_API_POOL_MAXTOTAL without the prefix.
+	static String environmentName(String key) {
+		return key.toUpperCase(Locale.ROOT).replace('.', '_').replace('-', '_');
+	}
+}
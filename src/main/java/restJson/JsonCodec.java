@@ -0,0 +1,117 @@
+package restJson;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * The one Jackson {@link ObjectMapper} of the framework, with cached writers
+ * and readers per type.
+ *
+ * <p>
+ * An {@link ObjectMapper} is expensive to create and its serializers are
+ * resolved per type on first use, so building one per call pays both costs
+ * every time. This class configures a single mapper once and never changes it
+ * afterwards; callers only get {@link ObjectWriter}s and {@link ObjectReader}s,
+ * which are immutable and thread-safe, and which resolve the serializer of
+ * their root type when they are created. Each is created once per type and
+ * then reused, so a class can hold the writer of its payload type in a
+ * constant, e.g. <code>JsonCodec.writerFor(TestResults.class)</code>.
+ *
+ * <p>
+ * {@link #toBytes(Object)} writes UTF-8 straight into a byte array, for
+ * payloads that go to a socket or file anyway and never need to be a
+ * {@link String}.
+ *
+ * <p>
+ * Readers ignore properties they do not know, so a field added on the server
+ * does not break a test.
+ */
+public final class JsonCodec {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper()
+			.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+	private static final Map<JavaType, ObjectWriter> WRITERS = new ConcurrentHashMap<>();
+	private static final Map<JavaType, ObjectReader> READERS = new ConcurrentHashMap<>();
+
+	private JsonCodec() {
+	}
+
+	/**
+	 * @param type - the declared type of the values to write.
+	 * @return the shared writer for {@code type}
+	 */
+	public static ObjectWriter writerFor(Class<?> type) {
+		return writerFor(MAPPER.constructType(type));
+	}
+
+	/**
+	 * @param type - the declared generic type of the values to write, e.g.
+	 *             <code>new TypeReference&lt;Map&lt;String, Dto&gt;&gt;() {}</code>.
+	 * @return the shared writer for {@code type}
+	 */
+	public static ObjectWriter writerFor(TypeReference<?> type) {
+		return writerFor(MAPPER.constructType(type));
+	}
+
+	/**
+	 * @param type - the type of the values to read.
+	 * @return the shared reader for {@code type}
+	 */
+	public static ObjectReader readerFor(Class<?> type) {
+		return readerFor(MAPPER.constructType(type));
+	}
+
+	/**
+	 * @param type - the generic type of the values to read, e.g.
+	 *             <code>new TypeReference&lt;Map&lt;String, String&gt;&gt;() {}</code>.
+	 * @return the shared reader for {@code type}
+	 */
+	public static ObjectReader readerFor(TypeReference<?> type) {
+		return readerFor(MAPPER.constructType(type));
+	}
+
+	/**
+	 * Serialises a value as UTF-8 JSON with the writer of its runtime class.
+	 *
+	 * @param value - the value to write.
+	 * @return the JSON document
+	 * @throws UncheckedIOException if the value cannot be serialised
+	 */
+	public static byte[] toBytes(Object value) {
+		return toBytes(writerFor(value != null ? value.getClass() : Object.class), value);
+	}
+
+	/**
+	 * Serialises a value as UTF-8 JSON with the given writer.
+	 *
+	 * @param writer - e.g. a writer held in a constant.
+	 * @param value  - the value to write.
+	 * @return the JSON document
+	 * @throws UncheckedIOException if the value cannot be serialised
+	 */
+	public static byte[] toBytes(ObjectWriter writer, Object value) {
+		try {
+			return writer.writeValueAsBytes(value);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static ObjectWriter writerFor(JavaType type) {
+		return WRITERS.computeIfAbsent(type, MAPPER::writerFor);
+	}
+
+	private static ObjectReader readerFor(JavaType type) {
+		return READERS.computeIfAbsent(type, MAPPER::readerFor);
+	}
+}
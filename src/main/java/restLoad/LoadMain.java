@@ -0,0 +1,64 @@
+package restLoad;
+
+import java.util.concurrent.TimeUnit;
+
+import rest.SessionPool;
+import rest.SessionStore;
+import restConfig.ConfigManager;
+import restConfig.ConfigSnapshot;
+import restMetrics.PrometheusExporter;
+
+/**
+ * Command line entry point of the load mode.
+ *
+ * <p>
+ * All settings are configuration properties (see {@link ConfigManager}), so
+ * they can be passed as <code>-D</code> options:
+ * <ul>
+ * <li><code>load.mix</code> - weighted operations, default
+ * <code>GetPimEmp:60,GetJobTitle:20,GetEmpStatus:20</code></li>
+ * <li><code>load.concurrency</code> - worker threads, default 8</li>
+ * <li><code>load.rate</code> - target calls per second, 0 (default) for closed
+ * loop</li>
+ * <li><code>load.durationSeconds</code> - run time, default 60</li>
+ * <li><code>load.sessions</code> - sessions in the {@link SessionPool}; 0
+ * (default) shares the cached {@link SessionStore} cookie</li>
+ * </ul>
+ * Point <code>base.url</code> at a local stub server to run offline. With
+ * <code>metrics.port</code> set, live metrics are served while the load runs;
+ * they are written to <code>metrics.file</code> at the end (see
+ * {@link PrometheusExporter}).
+ */
+public class LoadMain {
+
+	public static void main(String[] args) throws InterruptedException {
+		ConfigSnapshot config = ConfigManager.snapshot();
+
+		LoadRunner runner = new LoadRunner(
+				LoadMix.parse(config.get("load.mix", "GetPimEmp:60,GetJobTitle:20,GetEmpStatus:20")))
+				.concurrency(config.getInt("load.concurrency", 8))
+				.targetRate(Double.parseDouble(config.get("load.rate", "0")))
+				.duration(config.getLong("load.durationSeconds", 60L), TimeUnit.SECONDS);
+
+		int sessions = config.getInt("load.sessions", 0);
+		SessionPool pool = null;
+		if (sessions > 0) {
+			pool = SessionPool.fromConfig(sessions);
+			runner.sessionPool(pool);
+		} else {
+			SessionStore store = SessionStore.getDefault();
+			runner.cookie(store::getCookie);
+		}
+
+		PrometheusExporter.startConfiguredServer();
+		try {
+			System.out.println(runner.run());
+		} finally {
+			if (pool != null) {
+				pool.close();
+			}
+			PrometheusExporter.writeConfiguredFile();
+			PrometheusExporter.stopServer();
+		}
+	}
+}
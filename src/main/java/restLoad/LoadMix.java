@@ -0,0 +1,69 @@
+package restLoad;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Weighted mix of {@link LoadOperation}s, e.g. 60% <code>GetPimEmp</code>, 20%
+ * <code>GetJobTitle</code> and 20% <code>GetEmpStatus</code>. Weights are
+ * relative and do not need to add up to 100.
+ */
+public final class LoadMix {
+
+	private final List<LoadOperation> operations = new ArrayList<>();
+	private final List<Integer> cumulativeWeights = new ArrayList<>();
+	private int totalWeight;
+
+	public LoadMix add(LoadOperation operation, int weight) {
+		if (weight <= 0) {
+			throw new IllegalArgumentException("Weight of " + operation.getName() + " must be positive");
+		}
+		totalWeight += weight;
+		operations.add(operation);
+		cumulativeWeights.add(totalWeight);
+		return this;
+	}
+
+	/**
+	 * Parses a mix such as <code>GetPimEmp:60,GetJobTitle:20,GetEmpStatus:20</code>
+	 * of built-in operations. An entry without a weight counts as weight 1.
+	 *
+	 * @param spec - comma separated <code>name[:weight]</code> entries.
+	 * @return the parsed mix.
+	 */
+	public static LoadMix parse(String spec) {
+		LoadMix mix = new LoadMix();
+		for (String entry : spec.split(",")) {
+			String trimmed = entry.trim();
+			if (trimmed.isEmpty()) {
+				continue;
+			}
+			int colon = trimmed.indexOf(':');
+			String name = colon < 0 ? trimmed : trimmed.substring(0, colon).trim();
+			int weight = colon < 0 ? 1 : Integer.parseInt(trimmed.substring(colon + 1).trim());
+			mix.add(LoadOperation.named(name), weight);
+		}
+		if (mix.operations.isEmpty()) {
+			throw new IllegalArgumentException("Load mix is empty: '" + spec + "'");
+		}
+		return mix;
+	}
+
+	public List<LoadOperation> getOperations() {
+		return new ArrayList<>(operations);
+	}
+
+	/**
+	 * @return an operation chosen at random according to the weights.
+	 */
+	public LoadOperation next() {
+		int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+		for (int i = 0; i < operations.size(); i++) {
+			if (pick < cumulativeWeights.get(i)) {
+				return operations.get(i);
+			}
+		}
+		return operations.get(operations.size() - 1);
+	}
+}
@@ -0,0 +1,74 @@
+package restLoad;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+import rest.ApiUtil;
+import rest.CustomResponse;
+
+/**
+ * One named {@link ApiUtil} call that the load generator can drive.
+ *
+ * <p>
+ * The operation receives the {@link ApiUtil} instance of the worker and the
+ * session cookie leased for the call and returns the {@link CustomResponse}.
+ * The built-in operations use the same endpoints as the PL1 test cases and are
+ * limited to the read-only GET calls, so a load run does not change the data
+ * it is measuring.
+ */
+public final class LoadOperation {
+
+	private static final Map<String, LoadOperation> BUILT_IN = new LinkedHashMap<>();
+
+	static {
+		register(new LoadOperation("GetEmpStatus", (api, cookie) -> api
+				.GetEmpStatus("/web/index.php/api/v2/admin/employment-statuses?limit=0", cookie, null)));
+		register(new LoadOperation("GetJobTitle",
+				(api, cookie) -> api.GetJobTitle("/web/index.php/api/v2/admin/job-titles?limit=0", cookie, null)));
+		register(new LoadOperation("GetAdminSubunit",
+				(api, cookie) -> api.GetAdminSubunit("/web/index.php/api/v2/admin/subunits", cookie, null)));
+		register(new LoadOperation("GetPimEmp",
+				(api, cookie) -> api.GetPimEmp("/web/index.php/api/v2/pim/employees", cookie, null)));
+		register(new LoadOperation("GetReportASC", (api, cookie) -> api.GetReportASC(
+				"/web/index.php/api/v2/pim/reports/defined?limit=50&offset=0&sortField=report.name&sortOrder=ASC",
+				cookie, null)));
+		register(new LoadOperation("GetLeaveEligibility", (api, cookie) -> api
+				.GetLeaveEligibility("/web/index.php/api/v2/leave/leave-types/eligible?includeAllocated=true", cookie,
+						null)));
+	}
+
+	private final String name;
+	private final BiFunction<ApiUtil, String, CustomResponse> call;
+
+	public LoadOperation(String name, BiFunction<ApiUtil, String, CustomResponse> call) {
+		this.name = name;
+		this.call = call;
+	}
+
+	private static void register(LoadOperation operation) {
+		BUILT_IN.put(operation.name, operation);
+	}
+
+	/**
+	 * @param name - an ApiUtil method name, e.g. <code>GetPimEmp</code>.
+	 * @return the built-in operation of that name.
+	 * @throws IllegalArgumentException if there is no such operation.
+	 */
+	public static LoadOperation named(String name) {
+		LoadOperation operation = BUILT_IN.get(name);
+		if (operation == null) {
+			throw new IllegalArgumentException(
+					"Unknown load operation '" + name + "'. Known operations: " + BUILT_IN.keySet());
+		}
+		return operation;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public CustomResponse execute(ApiUtil apiUtil, String cookie) {
+		return call.apply(apiUtil, cookie);
+	}
+}
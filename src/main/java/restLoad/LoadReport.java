@@ -0,0 +1,57 @@
+package restLoad;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a {@link LoadRunner} run: throughput, error rate and latency
+ * percentiles per operation. The percentiles are response times; the last
+ * column is the p99 service time, for comparison.
+ */
+public final class LoadReport {
+
+	private static final double[] PERCENTILES = { 50, 90, 99, 99.9, 100 };
+
+	private final List<OperationStats> operations;
+	private final long elapsedNanos;
+
+	LoadReport(List<OperationStats> operations, long elapsedNanos) {
+		this.operations = new ArrayList<>(operations);
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	public List<OperationStats> getOperations() {
+		return new ArrayList<>(operations);
+	}
+
+	public double getElapsedSeconds() {
+		return elapsedNanos / 1_000_000_000.0;
+	}
+
+	/**
+	 * @param stats - one of the operations of this report.
+	 * @return completed calls per second over the whole run.
+	 */
+	public double getThroughput(OperationStats stats) {
+		double seconds = getElapsedSeconds();
+		return seconds == 0 ? 0 : stats.getCount() / seconds;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder report = new StringBuilder();
+		report.append(String.format("Load run: %.1f s%n", getElapsedSeconds()));
+		report.append(String.format("%-22s %9s %9s %8s %9s %9s %9s %9s %9s %11s%n", "operation", "count", "req/s",
+				"errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "svc p99 ms"));
+		for (OperationStats stats : operations) {
+			report.append(String.format("%-22s %9d %9.1f %7.2f%%", stats.getName(), stats.getCount(),
+					getThroughput(stats), stats.getErrorRate() * 100));
+			for (double percentile : PERCENTILES) {
+				report.append(String.format(" %9.1f", stats.getLatencyNanos(percentile) / 1_000_000.0));
+			}
+			report.append(String.format(" %11.1f", stats.getServiceTime().getValueAtPercentile(99) / 1_000_000.0));
+			report.append(System.lineSeparator());
+		}
+		return report.toString();
+	}
+}
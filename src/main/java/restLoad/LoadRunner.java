@@ -0,0 +1,234 @@
+package restLoad;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import rest.ApiUtil;
+import rest.BodyRetention;
+import rest.CustomResponse;
+import rest.SessionPool;
+import rest.SessionStore;
+import restMetrics.ApiMetrics;
+
+/**
+ * Drives a {@link LoadMix} of {@link ApiUtil} operations for a fixed duration
+ * and collects per-operation throughput, errors and latency.
+ *
+ * <p>
+ * Without a target rate every worker issues its next call as soon as the
+ * previous one completes (closed loop). With a target rate the calls are
+ * spread evenly over the workers and each worker waits for its next scheduled
+ * start time (open loop, up to what <code>concurrency</code> workers can
+ * sustain). Latency is then measured from that scheduled time rather than
+ * from the moment the call was actually sent, so a stall that holds back the
+ * following calls shows up in their latency instead of being omitted.
+ *
+ * <p>
+ * Every worker records into its own {@link OperationStats}; they are merged
+ * into the report once the run is over.
+ *
+ * <p>
+ * Each call uses a session leased from a {@link SessionPool} when one is set,
+ * or the cookie supplier otherwise. A lease that fails, e.g. because the login
+ * timed out, counts as a failed call. Without a pool, a cookie the server
+ * rejects with a 401 is replaced through {@link SessionStore#getDefault()} and
+ * the replacement is used for the rest of the run.
+ */
+public class LoadRunner {
+
+	private final LoadMix mix;
+	private int concurrency = 1;
+	private double targetRate;
+	private long durationNanos = TimeUnit.SECONDS.toNanos(60);
+	private SessionPool sessionPool;
+	private Supplier<String> cookie;
+	private volatile String renewedCookie;
+
+	public LoadRunner(LoadMix mix) {
+		this.mix = mix;
+	}
+
+	/**
+	 * @param concurrency - number of worker threads.
+	 * @return this runner
+	 */
+	public LoadRunner concurrency(int concurrency) {
+		if (concurrency < 1) {
+			throw new IllegalArgumentException("Concurrency must be at least 1 but was " + concurrency);
+		}
+		this.concurrency = concurrency;
+		return this;
+	}
+
+	/**
+	 * @param callsPerSecond - total calls per second across all workers, or 0 to
+	 *                       run closed loop.
+	 * @return this runner
+	 */
+	public LoadRunner targetRate(double callsPerSecond) {
+		this.targetRate = callsPerSecond;
+		return this;
+	}
+
+	public LoadRunner duration(long duration, TimeUnit unit) {
+		this.durationNanos = unit.toNanos(duration);
+		return this;
+	}
+
+	public LoadRunner sessionPool(SessionPool sessionPool) {
+		this.sessionPool = sessionPool;
+		return this;
+	}
+
+	public LoadRunner cookie(Supplier<String> cookie) {
+		this.cookie = cookie;
+		return this;
+	}
+
+	/**
+	 * Runs the load and blocks until the duration has elapsed and every worker
+	 * has finished its last call.
+	 *
+	 * @return the per-operation results
+	 * @throws InterruptedException if interrupted while waiting for the workers
+	 */
+	public LoadReport run() throws InterruptedException {
+		if (sessionPool == null && cookie == null) {
+			throw new IllegalStateException("Either a session pool or a cookie supplier is required");
+		}
+
+		long intervalNanos = targetRate > 0 ? (long) (1_000_000_000.0 * concurrency / targetRate) : 0;
+		long start = System.nanoTime();
+		long end = start + durationNanos;
+		CountDownLatch done = new CountDownLatch(concurrency);
+
+		List<Map<LoadOperation, OperationStats>> workerStats = new ArrayList<>(concurrency);
+		List<Thread> workers = new ArrayList<>(concurrency);
+		for (int i = 0; i < concurrency; i++) {
+			long firstStart = start + intervalNanos * i / concurrency;
+			Map<LoadOperation, OperationStats> stats = newStats();
+			workerStats.add(stats);
+			Thread worker = new Thread(() -> {
+				try {
+					work(stats, firstStart, intervalNanos, end);
+				} finally {
+					done.countDown();
+				}
+			}, "load-worker-" + i);
+			worker.setDaemon(true);
+			workers.add(worker);
+		}
+		for (Thread worker : workers) {
+			worker.start();
+		}
+		done.await();
+		long elapsed = System.nanoTime() - start;
+
+		Map<LoadOperation, OperationStats> total = newStats();
+		for (Map<LoadOperation, OperationStats> stats : workerStats) {
+			for (Map.Entry<LoadOperation, OperationStats> entry : stats.entrySet()) {
+				total.get(entry.getKey()).add(entry.getValue());
+			}
+		}
+		return new LoadReport(new ArrayList<>(total.values()), elapsed);
+	}
+
+	private Map<LoadOperation, OperationStats> newStats() {
+		Map<LoadOperation, OperationStats> stats = new LinkedHashMap<>();
+		for (LoadOperation operation : mix.getOperations()) {
+			stats.put(operation, new OperationStats(operation.getName()));
+		}
+		return stats;
+	}
+
+	private void work(Map<LoadOperation, OperationStats> stats, long firstStart, long intervalNanos, long end) {
+		ApiUtil apiUtil = new ApiUtil();
+		apiUtil.setBodyRetention(BodyRetention.NONE);
+
+		long nextStart = firstStart;
+		while (true) {
+			if (intervalNanos > 0) {
+				long wait = nextStart - System.nanoTime();
+				if (wait > 0) {
+					LockSupport.parkNanos(wait);
+				}
+			}
+			long now = System.nanoTime();
+			if (now >= end || Thread.currentThread().isInterrupted()) {
+				return;
+			}
+			long intendedStart = intervalNanos > 0 ? nextStart : now;
+
+			LoadOperation operation = mix.next();
+			SessionPool.Session session = null;
+			if (sessionPool != null) {
+				try {
+					session = sessionPool.lease();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				} catch (RuntimeException e) {
+					long failedAt = System.nanoTime();
+					stats.get(operation).record(failedAt - intendedStart, failedAt - intendedStart, false);
+					nextStart += intervalNanos;
+					continue;
+				}
+			}
+			// Waiting for a pooled session is part of the response time but not
+			// of the service time.
+			long callStart = System.nanoTime();
+			boolean success = call(apiUtil, operation, session);
+			long callEnd = System.nanoTime();
+			stats.get(operation).record(callEnd - intendedStart, callEnd - callStart, success);
+			nextStart += intervalNanos;
+		}
+	}
+
+	private boolean call(ApiUtil apiUtil, LoadOperation operation, SessionPool.Session session) {
+		if (session == null) {
+			String sessionCookie = renewedCookie != null ? renewedCookie : cookie.get();
+			CustomResponse response = execute(apiUtil, operation, sessionCookie);
+			if (response != null && response.getStatusCode() == 401) {
+				renew(sessionCookie);
+			}
+			return isSuccess(response);
+		}
+		try {
+			CustomResponse response = execute(apiUtil, operation, session.cookie());
+			if (response != null && response.getStatusCode() == 401) {
+				session.invalidate();
+			}
+			return isSuccess(response);
+		} finally {
+			session.close();
+		}
+	}
+
+	// Only the first worker to see the 401 logs in again; SessionStore hands
+	// the others the cookie it already renewed.
+	private void renew(String staleCookie) {
+		try {
+			renewedCookie = SessionStore.getDefault().refresh(staleCookie);
+		} catch (RuntimeException e) {
+			// Counted as failed calls until a later renewal succeeds.
+		}
+	}
+
+	private static CustomResponse execute(ApiUtil apiUtil, LoadOperation operation, String sessionCookie) {
+		try {
+			return operation.execute(apiUtil, sessionCookie);
+		} catch (RuntimeException e) {
+			return null;
+		}
+	}
+
+	private static boolean isSuccess(CustomResponse response) {
+		return response != null && ApiMetrics.isSuccess(response.getStatusCode());
+	}
+}
@@ -0,0 +1,85 @@
+package restLoad;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import restMetrics.LatencyHistogram;
+
+/**
+ * Counters and latency histograms of one {@link LoadOperation} during a load
+ * run.
+ *
+ * <p>
+ * Two latencies are kept per call. The service time runs from the moment the
+ * request was actually sent. The response time runs from the moment it was
+ * scheduled to be sent, so in an open-loop run the queueing delay behind a
+ * slow call is included and percentiles are not flattered by coordinated
+ * omission; in a closed-loop run both are the same.
+ */
+public final class OperationStats {
+
+	private final String name;
+	private final LongAdder count = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+	private final LatencyHistogram responseTime = new LatencyHistogram();
+	private final LatencyHistogram serviceTime = new LatencyHistogram();
+
+	OperationStats(String name) {
+		this.name = name;
+	}
+
+	void record(long responseNanos, long serviceNanos, boolean success) {
+		count.increment();
+		if (!success) {
+			errors.increment();
+		}
+		responseTime.recordNanos(responseNanos);
+		serviceTime.recordNanos(serviceNanos);
+	}
+
+	void add(OperationStats other) {
+		count.add(other.getCount());
+		errors.add(other.getErrors());
+		responseTime.add(other.responseTime);
+		serviceTime.add(other.serviceTime);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getErrors() {
+		return errors.sum();
+	}
+
+	public double getErrorRate() {
+		long total = getCount();
+		return total == 0 ? 0 : (double) getErrors() / total;
+	}
+
+	/**
+	 * @param percentile - between 0 and 100, e.g. 99.9.
+	 * @return the response time at the given percentile in nanoseconds, or 0 if
+	 *         nothing was recorded.
+	 */
+	public long getLatencyNanos(double percentile) {
+		return responseTime.getValueAtPercentile(percentile);
+	}
+
+	/**
+	 * @return latencies measured from the intended start of each call.
+	 */
+	public LatencyHistogram getResponseTime() {
+		return responseTime;
+	}
+
+	/**
+	 * @return latencies measured from the actual start of each call.
+	 */
+	public LatencyHistogram getServiceTime() {
+		return serviceTime;
+	}
+}
@@ -0,0 +1,134 @@
+package restMetrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Process-wide registry of {@link EndpointMetrics}, keyed by endpoint name.
+ *
+ * <p>
+ * Every request sent through the pooled specifications of
+ * <code>rest.ConnectionPool</code> is recorded here, so the latency of each
+ * <code>ApiUtil</code> call is available per endpoint without any change to
+ * the callers:
+ *
+ * <pre>
+ * LatencyHistogram pim = ApiMetrics.endpoint("PIM_EMPLOYEES").getLatency();
+ * long p99 = pim.getValueAtPercentile(99);
+ * </pre>
+ *
+ * <p>
+ * Other components register gauges here, e.g. the connection pool sizes, so
+ * that {@link PrometheusExporter} can publish them without depending on those
+ * components.
+ */
+public final class ApiMetrics {
+
+	private static final ConcurrentMap<String, EndpointMetrics> ENDPOINTS = new ConcurrentHashMap<>();
+	private static final Map<String, Gauge> GAUGES = new LinkedHashMap<>();
+
+	private ApiMetrics() {
+	}
+
+	/**
+	 * @param name - the endpoint name.
+	 * @return the metrics of that endpoint, created on first use.
+	 */
+	public static EndpointMetrics endpoint(String name) {
+		EndpointMetrics metrics = ENDPOINTS.get(name);
+		return metrics != null ? metrics : ENDPOINTS.computeIfAbsent(name, EndpointMetrics::new);
+	}
+
+	/**
+	 * Records one call of the named endpoint.
+	 *
+	 * @param name         - the endpoint name.
+	 * @param latencyNanos - the call latency in nanoseconds.
+	 * @param success      - {@code false} for a failed call or an error status.
+	 */
+	public static void record(String name, long latencyNanos, boolean success) {
+		endpoint(name).record(latencyNanos, success);
+	}
+
+	/**
+	 * The one definition of a successful call, shared by the request metrics
+	 * and the load report. Redirects count as success because the login form
+	 * answers with a 302.
+	 *
+	 * @param statusCode - the HTTP status code.
+	 * @return {@code true} for 2xx and 3xx
+	 */
+	public static boolean isSuccess(int statusCode) {
+		return statusCode >= 200 && statusCode < 400;
+	}
+
+	/**
+	 * @return the metrics of every endpoint called so far.
+	 */
+	public static List<EndpointMetrics> endpoints() {
+		return new ArrayList<>(ENDPOINTS.values());
+	}
+
+	/**
+	 * Forgets every endpoint, e.g. after a warm-up phase. Gauges stay
+	 * registered.
+	 */
+	public static void reset() {
+		ENDPOINTS.clear();
+	}
+
+	/**
+	 * Registers a gauge that is read each time the metrics are exported. A gauge
+	 * registered again under the same name replaces the previous one.
+	 *
+	 * @param name  - the metric name, e.g. <code>orangehrm_http_pool_leased</code>.
+	 * @param help  - a one-line description.
+	 * @param value - reads the current value.
+	 */
+	public static void gauge(String name, String help, DoubleSupplier value) {
+		synchronized (GAUGES) {
+			GAUGES.put(name, new Gauge(name, help, value));
+		}
+	}
+
+	/**
+	 * @return every registered gauge, in registration order.
+	 */
+	public static List<Gauge> gauges() {
+		synchronized (GAUGES) {
+			return new ArrayList<>(GAUGES.values());
+		}
+	}
+
+	/**
+	 * A named value read on demand.
+	 */
+	public static final class Gauge {
+		private final String name;
+		private final String help;
+		private final DoubleSupplier value;
+
+		private Gauge(String name, String help, DoubleSupplier value) {
+			this.name = name;
+			this.help = help;
+			this.value = value;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getHelp() {
+			return help;
+		}
+
+		public double getValue() {
+			return value.getAsDouble();
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package restMetrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call count, error count and latency histogram of one endpoint, plus the
+ * time spent in each {@link Phase} summed over the calls that were timed
+ * phase by phase.
+ */
+public final class EndpointMetrics {
+
+	private final String name;
+	private final LongAdder count = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+	private final LatencyHistogram latency = new LatencyHistogram();
+	private final LongAdder timedCalls = new LongAdder();
+	private final LongAdder newConnections = new LongAdder();
+	private final LongAdder[] phaseNanos = new LongAdder[Phase.values().length];
+
+	public EndpointMetrics(String name) {
+		this.name = name;
+		for (int i = 0; i < phaseNanos.length; i++) {
+			phaseNanos[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Records one completed call.
+	 *
+	 * @param latencyNanos - the call latency in nanoseconds.
+	 * @param success      - {@code false} for a failed call or an error status.
+	 */
+	public void record(long latencyNanos, boolean success) {
+		count.increment();
+		if (!success) {
+			errors.increment();
+		}
+		latency.recordNanos(latencyNanos);
+	}
+
+	/**
+	 * Records the phase breakdown of one call.
+	 *
+	 * @param nanos         - time spent per phase, indexed by
+	 *                      {@link Phase#ordinal()}.
+	 * @param newConnection - whether the call opened a new connection.
+	 */
+	public void recordPhases(long[] nanos, boolean newConnection) {
+		timedCalls.increment();
+		if (newConnection) {
+			newConnections.increment();
+		}
+		for (int i = 0; i < phaseNanos.length && i < nanos.length; i++) {
+			phaseNanos[i].add(nanos[i]);
+		}
+	}
+
+	/**
+	 * Adds the counts of another instance to this one.
+	 *
+	 * @param other - the metrics to merge in.
+	 */
+	public void add(EndpointMetrics other) {
+		count.add(other.getCount());
+		errors.add(other.getErrors());
+		latency.add(other.latency);
+		timedCalls.add(other.getTimedCalls());
+		newConnections.add(other.getNewConnections());
+		for (int i = 0; i < phaseNanos.length; i++) {
+			phaseNanos[i].add(other.phaseNanos[i].sum());
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getErrors() {
+		return errors.sum();
+	}
+
+	public double getErrorRate() {
+		long total = getCount();
+		return total == 0 ? 0 : (double) getErrors() / total;
+	}
+
+	public LatencyHistogram getLatency() {
+		return latency;
+	}
+
+	/**
+	 * @return the number of calls recorded with {@link #recordPhases}.
+	 */
+	public long getTimedCalls() {
+		return timedCalls.sum();
+	}
+
+	public long getNewConnections() {
+		return newConnections.sum();
+	}
+
+	/**
+	 * @param phase - the phase.
+	 * @return the time spent in that phase over all timed calls in nanoseconds.
+	 */
+	public long getPhaseNanos(Phase phase) {
+		return phaseNanos[phase.ordinal()].sum();
+	}
+
+	/**
+	 * @param phase - the phase.
+	 * @return the mean time spent in that phase per timed call in nanoseconds,
+	 *         or 0 if no call was timed.
+	 */
+	public double getMeanPhaseNanos(Phase phase) {
+		long calls = getTimedCalls();
+		return calls == 0 ? 0 : (double) phaseNanos[phase.ordinal()].sum() / calls;
+	}
+}
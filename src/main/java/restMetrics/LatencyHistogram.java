@@ -0,0 +1,213 @@
+package restMetrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free, mergeable latency histogram with a fixed relative precision.
+ *
+ * <p>
+ * Latencies are counted in log-linear buckets in the style of HdrHistogram: the
+ * range up to one hour is split into powers of two, and each power of two into
+ * 128 equally wide sub-buckets, so every recorded value is resolved to within
+ * 1% at one microsecond granularity. The whole histogram is a single
+ * {@link AtomicLongArray} of about 3,300 counters; recording is one index
+ * computation and one atomic increment, so many threads can record into the
+ * same instance without locking, and percentiles are exact to the bucket width
+ * however many values are recorded.
+ *
+ * <p>
+ * When requests are issued at a fixed rate, a stalled response also delays
+ * the requests that should have been sent while waiting for it ("coordinated
+ * omission"). Either measure from the intended start time, or record with
+ * {@link #recordNanos(long, long)}, which back-fills the samples the stall
+ * suppressed.
+ */
+public final class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 8;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+	private static final long MAX_MICROS = TimeUnit.HOURS.toMicros(1);
+	private static final int BUCKET_COUNT = index(MAX_MICROS) + 1;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+	private final AtomicLong totalCount = new AtomicLong();
+	private final AtomicLong totalMicros = new AtomicLong();
+	private final AtomicLong maxMicros = new AtomicLong();
+
+	/**
+	 * Records one latency.
+	 *
+	 * @param nanos - the latency in nanoseconds; values above one hour are
+	 *              counted as one hour.
+	 */
+	public void recordNanos(long nanos) {
+		recordMicros(Math.min(Math.max(nanos, 0L) / 1000L, MAX_MICROS), 1);
+	}
+
+	/**
+	 * Records one latency measured at a fixed request interval and corrects for
+	 * coordinated omission: when the latency exceeds the interval, the requests
+	 * that would have been sent meanwhile are recorded as well, with latencies
+	 * decreasing by one interval each.
+	 *
+	 * @param nanos            - the measured latency in nanoseconds.
+	 * @param expectedInterval - the interval between two intended requests in
+	 *                         nanoseconds; 0 records without correction.
+	 */
+	public void recordNanos(long nanos, long expectedInterval) {
+		recordNanos(nanos);
+		if (expectedInterval <= 0) {
+			return;
+		}
+		for (long missing = nanos - expectedInterval; missing >= expectedInterval; missing -= expectedInterval) {
+			recordNanos(missing);
+		}
+	}
+
+	/**
+	 * Adds every count of another histogram to this one, e.g. to combine the
+	 * histograms of several workers. The other histogram may still be recording
+	 * while it is added.
+	 *
+	 * @param other - the histogram to merge in.
+	 */
+	public void add(LatencyHistogram other) {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			long count = other.counts.get(i);
+			if (count != 0) {
+				counts.addAndGet(i, count);
+			}
+		}
+		totalCount.addAndGet(other.totalCount.get());
+		totalMicros.addAndGet(other.totalMicros.get());
+		updateMax(other.maxMicros.get());
+	}
+
+	/**
+	 * @return an independent copy of the current counts.
+	 */
+	public LatencyHistogram copy() {
+		LatencyHistogram copy = new LatencyHistogram();
+		copy.add(this);
+		return copy;
+	}
+
+	/**
+	 * Clears every count. Values recorded concurrently with a reset may or may
+	 * not survive it.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			counts.set(i, 0L);
+		}
+		totalCount.set(0L);
+		totalMicros.set(0L);
+		maxMicros.set(0L);
+	}
+
+	public long getTotalCount() {
+		return totalCount.get();
+	}
+
+	/**
+	 * @return the largest recorded latency in nanoseconds.
+	 */
+	public long getMaxNanos() {
+		return maxMicros.get() * 1000L;
+	}
+
+	/**
+	 * @return the sum of all recorded latencies in nanoseconds.
+	 */
+	public long getSumNanos() {
+		return totalMicros.get() * 1000L;
+	}
+
+	/**
+	 * @return the mean recorded latency in nanoseconds, or 0 if nothing was
+	 *         recorded.
+	 */
+	public double getMeanNanos() {
+		long count = totalCount.get();
+		return count == 0 ? 0 : totalMicros.get() * 1000.0 / count;
+	}
+
+	/**
+	 * @param percentile - between 0 and 100, e.g. 99.9.
+	 * @return the latency in nanoseconds that the given percentage of recorded
+	 *         values does not exceed, to within the bucket precision; 0 if
+	 *         nothing was recorded.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long count = totalCount.get();
+		if (count == 0) {
+			return 0;
+		}
+		long target = Math.max(1L, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+		long seen = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			seen += counts.get(i);
+			if (seen >= target) {
+				return Math.min(highestEquivalentValue(i), maxMicros.get()) * 1000L;
+			}
+		}
+		return getMaxNanos();
+	}
+
+	/**
+	 * @return the number of values recorded per bucket, indexed by bucket; see
+	 *         {@link #bucketUpperBoundNanos(int)}.
+	 */
+	public long[] getBucketCounts() {
+		long[] snapshot = new long[BUCKET_COUNT];
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			snapshot[i] = counts.get(i);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * @param bucket - a bucket index.
+	 * @return the largest latency in nanoseconds counted in that bucket.
+	 */
+	public static long bucketUpperBoundNanos(int bucket) {
+		return highestEquivalentValue(bucket) * 1000L;
+	}
+
+	private void recordMicros(long micros, long count) {
+		counts.addAndGet(index(micros), count);
+		totalCount.addAndGet(count);
+		totalMicros.addAndGet(micros * count);
+		updateMax(micros);
+	}
+
+	private void updateMax(long micros) {
+		long current = maxMicros.get();
+		while (micros > current && !maxMicros.compareAndSet(current, micros)) {
+			current = maxMicros.get();
+		}
+	}
+
+	// Values below SUB_BUCKET_COUNT map to themselves. Above that, each power of
+	// two [2^k, 2^(k+1)) is split into SUB_BUCKET_HALF_COUNT buckets of width
+	// 2^(k - SUB_BUCKET_BITS + 1), laid out contiguously after the linear range.
+	private static int index(long micros) {
+		if (micros < SUB_BUCKET_COUNT) {
+			return (int) micros;
+		}
+		int shift = 64 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+		return shift * SUB_BUCKET_HALF_COUNT + (int) (micros >>> shift);
+	}
+
+	private static long highestEquivalentValue(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int shift = index / SUB_BUCKET_HALF_COUNT - 1;
+		long subBucket = index - (long) shift * SUB_BUCKET_HALF_COUNT;
+		return ((subBucket + 1) << shift) - 1;
+	}
+}
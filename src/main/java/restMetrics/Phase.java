@@ -0,0 +1,37 @@
+package restMetrics;
+
+/**
+ * Phases of one API call, in the order they happen.
+ */
+public enum Phase {
+	/**
+	 * The attempt rejected with a 401 and the login that renewed its session; 0
+	 * if the session was valid.
+	 */
+	SESSION_RENEWAL("renewal"),
+	/** Building the request, from the ApiUtil call until bytes go on the wire. */
+	BUILD("build"),
+	/** Opening a new connection, including the TLS handshake; 0 on reuse. */
+	CONNECT("connect"),
+	/** From sending the request until the response headers are read. */
+	TIME_TO_FIRST_BYTE("ttfb"),
+	/** Reading the response body. */
+	DOWNLOAD("download"),
+	/** Extracting the requested fields from the JSON body. */
+	EXTRACTION("extraction"),
+	/** Building the CustomResponse from the extracted columns. */
+	CONSTRUCTION("construction");
+
+	private final String label;
+
+	Phase(String label) {
+		this.label = label;
+	}
+
+	/**
+	 * @return a short lower-case name, e.g. for report columns.
+	 */
+	public String label() {
+		return label;
+	}
+}
@@ -0,0 +1,268 @@
+package restMetrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpServer;
+
+import restConfig.ConfigManager;
+
+/**
+ * Writes {@link ApiMetrics} and JVM metrics in the Prometheus text exposition
+ * format (version 0.0.4).
+ *
+ * <p>
+ * Exported series:
+ * <ul>
+ * <li><code>orangehrm_api_requests_total</code> and
+ * <code>orangehrm_api_errors_total</code> per endpoint</li>
+ * <li><code>orangehrm_api_request_duration_seconds</code>, a histogram per
+ * endpoint</li>
+ * <li><code>orangehrm_api_phase_seconds_total</code> per endpoint and
+ * {@link Phase}</li>
+ * <li>every gauge registered with {@link ApiMetrics#gauge}, e.g. the
+ * connection pool</li>
+ * <li><code>jvm_memory_bytes_used</code>/<code>_committed</code>/<code>_max</code>,
+ * <code>jvm_gc_collection_seconds</code> and
+ * <code>jvm_threads_current</code></li>
+ * </ul>
+ *
+ * <p>
+ * Configuration properties (see {@link ConfigManager}):
+ * <ul>
+ * <li><code>metrics.file</code> - file written by {@link #writeConfiguredFile()}
+ * (default <code>TestReport/api-metrics.prom</code> under
+ * <code>user.dir</code>)</li>
+ * <li><code>metrics.port</code> - if set, {@link #startConfiguredServer()}
+ * serves <code>/metrics</code> on this local port (default: no server)</li>
+ * </ul>
+ */
+public final class PrometheusExporter {
+
+	private static final double[] BUCKET_BOUNDS_SECONDS = { 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25,
+			0.5, 1, 2.5, 5, 10, 30 };
+
+	private static HttpServer server;
+
+	private PrometheusExporter() {
+	}
+
+	/**
+	 * @return the current metrics in Prometheus text format.
+	 */
+	public static String scrape() {
+		StringBuilder out = new StringBuilder(4096);
+		List<EndpointMetrics> endpoints = new ArrayList<>(ApiMetrics.endpoints());
+		endpoints.sort(Comparator.comparing(EndpointMetrics::getName));
+
+		header(out, "orangehrm_api_requests_total", "counter", "API calls per endpoint.");
+		for (EndpointMetrics metrics : endpoints) {
+			sample(out, "orangehrm_api_requests_total", labels("endpoint", metrics.getName()), metrics.getCount());
+		}
+
+		header(out, "orangehrm_api_errors_total", "counter",
+				"API calls per endpoint that failed or returned an error status.");
+		for (EndpointMetrics metrics : endpoints) {
+			sample(out, "orangehrm_api_errors_total", labels("endpoint", metrics.getName()), metrics.getErrors());
+		}
+
+		header(out, "orangehrm_api_request_duration_seconds", "histogram", "API call latency per endpoint.");
+		for (EndpointMetrics metrics : endpoints) {
+			histogram(out, "orangehrm_api_request_duration_seconds", metrics.getName(), metrics.getLatency());
+		}
+
+		header(out, "orangehrm_api_phase_seconds_total", "counter",
+				"Time spent per phase of the API calls of each endpoint.");
+		for (EndpointMetrics metrics : endpoints) {
+			for (Phase phase : Phase.values()) {
+				sample(out, "orangehrm_api_phase_seconds_total",
+						labels("endpoint", metrics.getName()) + ",phase=\"" + phase.label() + "\"",
+						metrics.getPhaseNanos(phase) / 1e9);
+			}
+		}
+
+		for (ApiMetrics.Gauge gauge : ApiMetrics.gauges()) {
+			header(out, gauge.getName(), "gauge", gauge.getHelp());
+			sample(out, gauge.getName(), null, gauge.getValue());
+		}
+
+		jvm(out);
+		return out.toString();
+	}
+
+	/**
+	 * Writes the current metrics to a file. The file is replaced atomically, so
+	 * a scraper or file collector never reads a partial file.
+	 *
+	 * @param file - the target file; missing directories are created.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public static void writeTo(Path file) throws IOException {
+		Path directory = file.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		Path temp = Files.createTempFile(directory, "metrics", ".tmp");
+		Files.write(temp, scrape().getBytes(StandardCharsets.UTF_8));
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Writes the current metrics to the configured <code>metrics.file</code>.
+	 * Errors are printed and otherwise ignored, so a metrics problem never fails
+	 * a run.
+	 */
+	public static void writeConfiguredFile() {
+		String configured = ConfigManager.getProperty("metrics.file");
+		Path file = configured != null ? Paths.get(configured)
+				: Paths.get(System.getProperty("user.dir"), "TestReport", "api-metrics.prom");
+		try {
+			writeTo(file);
+			System.out.println("Metrics written to " + file.toAbsolutePath());
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Starts serving <code>/metrics</code> on the loopback interface if
+	 * <code>metrics.port</code> is configured. Calling this more than once has
+	 * no further effect.
+	 */
+	public static void startConfiguredServer() {
+		String port = ConfigManager.getProperty("metrics.port");
+		if (port != null && !port.trim().isEmpty()) {
+			startServer(Integer.parseInt(port.trim()));
+		}
+	}
+
+	/**
+	 * Starts serving <code>/metrics</code> on the loopback interface on a daemon
+	 * thread. Calling this more than once has no further effect.
+	 *
+	 * @param port - the local port, or 0 for any free port.
+	 * @return the port the server listens on, or -1 if it could not be started
+	 */
+	public static synchronized int startServer(int port) {
+		if (server != null) {
+			return server.getAddress().getPort();
+		}
+		try {
+			HttpServer created = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+			created.createContext("/metrics", exchange -> {
+				byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+				exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+				exchange.sendResponseHeaders(200, body.length);
+				try (OutputStream response = exchange.getResponseBody()) {
+					response.write(body);
+				}
+			});
+			created.setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "metrics-server");
+				thread.setDaemon(true);
+				return thread;
+			}));
+			created.start();
+			server = created;
+			System.out.println("Serving metrics on http://localhost:" + created.getAddress().getPort() + "/metrics");
+			return created.getAddress().getPort();
+		} catch (IOException e) {
+			e.printStackTrace();
+			return -1;
+		}
+	}
+
+	/**
+	 * Stops the server started by {@link #startServer(int)}, if any.
+	 */
+	public static synchronized void stopServer() {
+		if (server != null) {
+			server.stop(0);
+			server = null;
+		}
+	}
+
+	// Prometheus buckets are cumulative with fixed bounds; each latency bucket
+	// is counted under the first bound its upper edge does not exceed.
+	private static void histogram(StringBuilder out, String name, String endpoint, LatencyHistogram latency) {
+		long[] counts = latency.getBucketCounts();
+		String endpointLabel = labels("endpoint", endpoint);
+		long cumulative = 0;
+		int bucket = 0;
+		for (double bound : BUCKET_BOUNDS_SECONDS) {
+			long boundNanos = (long) (bound * 1e9);
+			while (bucket < counts.length && LatencyHistogram.bucketUpperBoundNanos(bucket) <= boundNanos) {
+				cumulative += counts[bucket++];
+			}
+			sample(out, name + "_bucket", endpointLabel + ",le=\"" + format(bound) + "\"", cumulative);
+		}
+		long total = 0;
+		for (long count : counts) {
+			total += count;
+		}
+		sample(out, name + "_bucket", endpointLabel + ",le=\"+Inf\"", total);
+		sample(out, name + "_sum", endpointLabel, latency.getSumNanos() / 1e9);
+		sample(out, name + "_count", endpointLabel, total);
+	}
+
+	private static void jvm(StringBuilder out) {
+		MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+		MemoryUsage nonHeap = ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage();
+		header(out, "jvm_memory_bytes_used", "gauge", "Used bytes of a given JVM memory area.");
+		sample(out, "jvm_memory_bytes_used", "area=\"heap\"", heap.getUsed());
+		sample(out, "jvm_memory_bytes_used", "area=\"nonheap\"", nonHeap.getUsed());
+		header(out, "jvm_memory_bytes_committed", "gauge", "Committed bytes of a given JVM memory area.");
+		sample(out, "jvm_memory_bytes_committed", "area=\"heap\"", heap.getCommitted());
+		sample(out, "jvm_memory_bytes_committed", "area=\"nonheap\"", nonHeap.getCommitted());
+		header(out, "jvm_memory_bytes_max", "gauge", "Max bytes of a given JVM memory area.");
+		sample(out, "jvm_memory_bytes_max", "area=\"heap\"", heap.getMax());
+		sample(out, "jvm_memory_bytes_max", "area=\"nonheap\"", nonHeap.getMax());
+
+		header(out, "jvm_gc_collection_seconds", "summary", "Time spent in a given JVM garbage collector.");
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			String gcLabel = labels("gc", gc.getName());
+			sample(out, "jvm_gc_collection_seconds_count", gcLabel, Math.max(0L, gc.getCollectionCount()));
+			sample(out, "jvm_gc_collection_seconds_sum", gcLabel, Math.max(0L, gc.getCollectionTime()) / 1000.0);
+		}
+
+		header(out, "jvm_threads_current", "gauge", "Current thread count of the JVM.");
+		sample(out, "jvm_threads_current", null, ManagementFactory.getThreadMXBean().getThreadCount());
+	}
+
+	private static void header(StringBuilder out, String name, String type, String help) {
+		out.append("# HELP ").append(name).append(' ').append(help.replace("\\", "\\\\").replace("\n", "\\n"))
+				.append('\n');
+		out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+	}
+
+	private static void sample(StringBuilder out, String name, String labels, double value) {
+		out.append(name);
+		if (labels != null) {
+			out.append('{').append(labels).append('}');
+		}
+		out.append(' ').append(format(value)).append('\n');
+	}
+
+	private static String labels(String name, String value) {
+		return name + "=\"" + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+	}
+
+	private static String format(double value) {
+		if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+			return Long.toString((long) value);
+		}
+		return Double.toString(value);
+	}
+}
@@ -0,0 +1,236 @@
+package restStub;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import restJson.JsonCodec;
+
+/**
+ * Deterministic OrangeHRM data sets served by {@link StubServer}.
+ *
+ * <p>
+ * Every row is generated once from a fixed seed and kept serialised, so a
+ * page of any size is assembled by copying bytes and repeated runs see exactly
+ * the same payloads.
+ */
+final class StubData {
+
+	private static final String[] EMPLOYMENT_STATUSES = { "Freelance", "Full-Time Contract",
+			"Full-Time Permanent", "Full-Time Probation", "Part-Time Contract", "Part-Time Internship" };
+	private static final String[] JOB_TITLES = { "Account Assistant", "Chief Executive Officer",
+			"Chief Financial Officer", "Content Specialist", "Customer Success Manager", "Database Administrator",
+			"Finance Manager", "HR Manager", "IT Manager", "Network Administrator", "Payroll Administrator",
+			"QA Engineer", "QA Lead", "Sales Representative", "Social Media Marketer", "Software Architect",
+			"Software Engineer", "Support Specialist" };
+	private static final String[] DEPARTMENTS = { "Administration", "Engineering", "Finance", "Human Resources",
+			"Marketing", "Quality Assurance", "Sales", "Support", "Development", "Platform", "Mobile", "Research" };
+	private static final String[] FIRST_NAMES = { "Odis", "Linda", "Peter", "Lisa", "Russel", "Rebecca", "Thomas",
+			"Garry", "Charlie", "Anthony", "Joe", "Nina", "Priya", "Kevin", "Sara", "Mohamed", "Yuki", "Elena" };
+	private static final String[] LAST_NAMES = { "Collings", "Mathews", "Anderson", "Chen", "Gunawardena",
+			"Abraham", "Fleming", "White", "Carter", "Nirmal", "Root", "Patel", "Sharma", "Mahesh", "Kumar",
+			"Tanaka", "Rossi", "Novak" };
+	private static final String[] REPORTS = { "All Employee Sub Unit Hierarchy Report", "Employee Contact info report",
+			"Employee Job Details", "PIM Sample Report", "Employee Leave Summary", "Headcount by Location",
+			"New Hires This Year", "Terminations by Reason" };
+	private static final String[] LEAVE_TYPES = { "CAN - Bereavement", "CAN - FMLA", "CAN - Personal",
+			"CAN - Vacation", "US - Bereavement", "US - FMLA", "US - Personal", "US - Vacation" };
+
+	final byte[][] employmentStatuses;
+	final byte[][] jobTitles;
+	final byte[][] subunits;
+	final byte[][] employees;
+	final byte[][] reports;
+	final byte[][] leaveTypes;
+
+	StubData(int employeeCount, int jobTitleCount, int subunitCount, int reportCount, long seed) {
+		Random random = new Random(seed);
+
+		List<Object> statuses = new ArrayList<>();
+		for (int i = 0; i < EMPLOYMENT_STATUSES.length; i++) {
+			statuses.add(row("id", i + 1, "name", EMPLOYMENT_STATUSES[i]));
+		}
+		employmentStatuses = serialise(statuses);
+
+		List<Object> titles = new ArrayList<>();
+		for (int i = 0; i < jobTitleCount; i++) {
+			String title = JOB_TITLES[i % JOB_TITLES.length];
+			if (i >= JOB_TITLES.length) {
+				title += " " + (i / JOB_TITLES.length + 1);
+			}
+			titles.add(row("id", i + 1, "title", title, "description", null, "note", null, "jobSpecification",
+					row("id", null, "filename", null, "fileType", null, "fileSize", null)));
+		}
+		jobTitles = serialise(titles);
+
+		subunits = serialise(subunitTree(Math.max(1, subunitCount)));
+
+		List<Object> people = new ArrayList<>(employeeCount);
+		for (int i = 0; i < employeeCount; i++) {
+			people.add(employee(i, random, jobTitleCount, subunitCount));
+		}
+		employees = serialise(people);
+
+		List<Object> definedReports = new ArrayList<>();
+		for (int i = 0; i < reportCount; i++) {
+			String name = REPORTS[i % REPORTS.length];
+			if (i >= REPORTS.length) {
+				name += " " + (i / REPORTS.length + 1);
+			}
+			definedReports.add(row("id", i + 1, "name", name));
+		}
+		definedReports.sort((a, b) -> String.valueOf(((Map<?, ?>) a).get("name"))
+				.compareTo(String.valueOf(((Map<?, ?>) b).get("name"))));
+		reports = serialise(definedReports);
+
+		List<Object> types = new ArrayList<>();
+		for (int i = 0; i < LEAVE_TYPES.length; i++) {
+			types.add(row("id", i + 1, "name", LEAVE_TYPES[i], "deleted", false, "situational", i % 4 == 1,
+					"usableBalance", 10 + random.nextInt(10)));
+		}
+		leaveTypes = serialise(types);
+	}
+
+	/**
+	 * Assembles the usual <code>{"data":[...],"meta":{"total":n},"rels":[]}</code>
+	 * list envelope around a slice of serialised rows.
+	 *
+	 * @param rows   - all rows of the data set.
+	 * @param offset - index of the first row.
+	 * @param limit  - maximum number of rows; 0 for all.
+	 * @return the response body
+	 */
+	static byte[] page(byte[][] rows, int offset, int limit) {
+		int from = Math.min(Math.max(offset, 0), rows.length);
+		int to = limit > 0 ? Math.min(rows.length, from + limit) : rows.length;
+		int size = 64;
+		for (int i = from; i < to; i++) {
+			size += rows[i].length + 1;
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+		write(out, "{\"data\":[");
+		for (int i = from; i < to; i++) {
+			if (i > from) {
+				out.write(',');
+			}
+			out.write(rows[i], 0, rows[i].length);
+		}
+		write(out, "],\"meta\":{\"total\":" + rows.length + "},\"rels\":[]}");
+		return out.toByteArray();
+	}
+
+	/**
+	 * @param data - the value of the <code>"data"</code> member.
+	 * @return the single-object envelope
+	 *         <code>{"data":{...},"meta":[],"rels":[]}</code>
+	 */
+	static byte[] object(Object data) {
+		Map<String, Object> envelope = new LinkedHashMap<>();
+		envelope.put("data", data);
+		envelope.put("meta", new ArrayList<>());
+		envelope.put("rels", new ArrayList<>());
+		return toJson(envelope);
+	}
+
+	static byte[] toJson(Object value) {
+		return JsonCodec.toBytes(value);
+	}
+
+	static Map<String, Object> row(Object... keysAndValues) {
+		Map<String, Object> row = new LinkedHashMap<>();
+		for (int i = 0; i < keysAndValues.length; i += 2) {
+			row.put((String) keysAndValues[i], keysAndValues[i + 1]);
+		}
+		return row;
+	}
+
+	private static Map<String, Object> employee(int index, Random random, int jobTitleCount, int subunitCount) {
+		String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+		String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+		boolean terminated = random.nextInt(20) == 0;
+		int jobTitle = jobTitleCount > 0 ? 1 + random.nextInt(jobTitleCount) : 0;
+		int subunit = 1 + random.nextInt(Math.max(1, subunitCount));
+		int status = 1 + random.nextInt(EMPLOYMENT_STATUSES.length);
+
+		List<Object> supervisors = new ArrayList<>();
+		if (index > 0 && random.nextBoolean()) {
+			supervisors.add(row("empNumber", 1 + random.nextInt(index), "lastName",
+					LAST_NAMES[random.nextInt(LAST_NAMES.length)], "firstName",
+					FIRST_NAMES[random.nextInt(FIRST_NAMES.length)], "middleName", ""));
+		}
+
+		return row("empNumber", index + 1, "lastName", lastName, "firstName", firstName, "middleName", "",
+				"employeeId", String.format("%04d", index + 1), "terminationId", terminated ? index + 1 : null,
+				"jobTitle",
+				jobTitle > 0
+						? row("id", jobTitle, "title", JOB_TITLES[(jobTitle - 1) % JOB_TITLES.length], "isDeleted",
+								false)
+						: row("id", null, "title", null, "isDeleted", null),
+				"subunit", row("id", subunit, "name", DEPARTMENTS[(subunit - 1) % DEPARTMENTS.length]), "empStatus",
+				row("id", status, "name", EMPLOYMENT_STATUSES[status - 1]), "supervisors", supervisors);
+	}
+
+	// OrangeHRM returns the organisation structure as a nested set: every unit
+	// has a depth and the left/right bounds of its subtree, in pre-order.
+	private static List<Object> subunitTree(int count) {
+		int[] parent = new int[count];
+		int[] level = new int[count];
+		parent[0] = -1;
+		for (int i = 1; i < count; i++) {
+			parent[i] = (i - 1) / 3;
+			level[i] = level[parent[i]] + 1;
+		}
+
+		List<List<Integer>> children = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			children.add(new ArrayList<>());
+		}
+		for (int i = 1; i < count; i++) {
+			children.get(parent[i]).add(i);
+		}
+
+		int[] left = new int[count];
+		int[] right = new int[count];
+		List<Integer> order = new ArrayList<>(count);
+		number(0, children, left, right, order, new int[] { 1 });
+
+		List<Object> rows = new ArrayList<>(count);
+		for (int unit : order) {
+			String title = unit == 0 ? "OrangeHRM" : DEPARTMENTS[(unit - 1) % DEPARTMENTS.length];
+			if (unit > DEPARTMENTS.length) {
+				title += " " + ((unit - 1) / DEPARTMENTS.length + 1);
+			}
+			rows.add(row("id", unit + 1, "title", title, "unitId", unit == 0 ? null : "U" + (unit + 1),
+					"description", unit == 0 ? null : title + " unit", "level", level[unit], "left", left[unit],
+					"right", right[unit]));
+		}
+		return rows;
+	}
+
+	private static void number(int unit, List<List<Integer>> children, int[] left, int[] right,
+			List<Integer> order, int[] counter) {
+		order.add(unit);
+		left[unit] = counter[0]++;
+		for (int child : children.get(unit)) {
+			number(child, children, left, right, order, counter);
+		}
+		right[unit] = counter[0]++;
+	}
+
+	private static byte[][] serialise(List<Object> rows) {
+		byte[][] serialised = new byte[rows.size()][];
+		for (int i = 0; i < serialised.length; i++) {
+			serialised[i] = toJson(rows.get(i));
+		}
+		return serialised;
+	}
+
+	private static void write(ByteArrayOutputStream out, String text) {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		out.write(bytes, 0, bytes.length);
+	}
+}
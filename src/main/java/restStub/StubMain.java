@@ -0,0 +1,25 @@
+package restStub;
+
+import java.io.IOException;
+
+import restConfig.ConfigManager;
+
+/**
+ * Command line entry point that runs a {@link StubServer} until the process is
+ * stopped.
+ *
+ * <p>
+ * The data set sizes and latency come from the <code>stub.*</code>
+ * properties (see {@link StubServer#fromConfig()}); the port from
+ * <code>stub.port</code> (default 8089). Run the tests or the load mode with
+ * <code>-Dbase.url=http://localhost:8089</code> to use it.
+ */
+public class StubMain {
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		StubServer stub = StubServer.fromConfig().start(ConfigManager.snapshot().getInt("stub.port", 8089));
+		System.out.println("OrangeHRM stub listening on " + stub.getBaseUrl());
+		Runtime.getRuntime().addShutdownHook(new Thread(stub::stop));
+		Thread.currentThread().join();
+	}
+}
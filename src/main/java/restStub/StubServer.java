@@ -0,0 +1,464 @@
+package restStub;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import restConfig.ConfigManager;
+import restConfig.ConfigSnapshot;
+import restJson.JsonCodec;
+
+/**
+ * Embedded stand-in for the OrangeHRM instance at <code>base.url</code>, built
+ * on the JDK {@link HttpServer}.
+ *
+ * <p>
+ * It serves the login flow used by <code>rest.HttpLogin</code> and every
+ * endpoint {@link rest.ApiUtil} calls, with the same envelopes, status lines
+ * and <code>limit</code>/<code>offset</code> paging as the real API, over
+ * generated data sets of configurable size. API calls without a session
+ * cookie issued by the stub's own login get a 401. An optional fixed latency
+ * plus random jitter is added to every response.
+ *
+ * <pre>
+ * StubServer stub = new StubServer().employees(50_000).latency(20, 5).start(0);
+ * System.setProperty("base.url", stub.getBaseUrl());
+ * ConfigManager.reload();
+ * </pre>
+ *
+ * <p>
+ * See {@link #fromConfig()} for the <code>stub.*</code> properties.
+ */
+public class StubServer {
+
+	private static final String ROOT = "/web/index.php";
+	private static final String API = ROOT + "/api/v2";
+	private static final String SESSION_COOKIE = "orangehrm";
+	private static final String CSRF_TOKEN = "stub-csrf-token";
+	private static final ObjectReader BODY_READER = JsonCodec
+			.readerFor(new TypeReference<LinkedHashMap<String, Object>>() {
+			});
+
+	private int employees = 100;
+	private int jobTitles = 25;
+	private int subunits = 15;
+	private int reports = 10;
+	private long seed = 42L;
+	private long latencyMillis;
+	private long jitterMillis;
+	private int threads = 16;
+	private String username = "Admin";
+	private String password = "admin123";
+
+	private StubData data;
+	private HttpServer server;
+	private ExecutorService executor;
+
+	private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+	private final Map<Integer, Map<String, Object>> customFields = new ConcurrentHashMap<>();
+	private final AtomicInteger nextCustomFieldId = new AtomicInteger(2);
+	private volatile Map<String, Object> ldapConfig = defaultLdapConfig();
+	private volatile Map<String, Object> optionalFields = StubData.row("pimShowDeprecatedFields", false,
+			"showSIN", false, "showSSN", false, "showTaxExemptions", false);
+
+	/**
+	 * Creates a stub configured from the <code>stub.*</code> properties (see
+	 * {@link ConfigManager}):
+	 * <ul>
+	 * <li><code>stub.employees</code>, <code>stub.jobTitles</code>,
+	 * <code>stub.subunits</code>, <code>stub.reports</code> - data set sizes
+	 * (default 100, 25, 15, 10)</li>
+	 * <li><code>stub.seed</code> - seed of the generated data (default 42)</li>
+	 * <li><code>stub.latencyMillis</code>, <code>stub.jitterMillis</code> - delay
+	 * added to every response (default 0)</li>
+	 * <li><code>stub.threads</code> - request handler threads (default 16)</li>
+	 * </ul>
+	 * The accepted credentials are the configured <code>username</code> and
+	 * <code>password</code>, so the regular login works against it unchanged.
+	 *
+	 * @return a stub that is not started yet
+	 */
+	public static StubServer fromConfig() {
+		ConfigSnapshot config = ConfigManager.snapshot();
+		return new StubServer().employees(config.getInt("stub.employees", 100))
+				.jobTitles(config.getInt("stub.jobTitles", 25)).subunits(config.getInt("stub.subunits", 15))
+				.reports(config.getInt("stub.reports", 10)).seed(config.getLong("stub.seed", 42L))
+				.latency(config.getLong("stub.latencyMillis", 0L), config.getLong("stub.jitterMillis", 0L))
+				.threads(config.getInt("stub.threads", 16))
+				.credentials(config.get("username", "Admin"), config.get("password", "admin123"));
+	}
+
+	public StubServer employees(int count) {
+		this.employees = count;
+		return this;
+	}
+
+	public StubServer jobTitles(int count) {
+		this.jobTitles = count;
+		return this;
+	}
+
+	public StubServer subunits(int count) {
+		this.subunits = count;
+		return this;
+	}
+
+	public StubServer reports(int count) {
+		this.reports = count;
+		return this;
+	}
+
+	public StubServer seed(long seed) {
+		this.seed = seed;
+		return this;
+	}
+
+	/**
+	 * @param fixedMillis  - delay added to every response.
+	 * @param jitterMillis - additional random delay, uniformly distributed
+	 *                     between 0 and this value.
+	 * @return this stub
+	 */
+	public StubServer latency(long fixedMillis, long jitterMillis) {
+		this.latencyMillis = fixedMillis;
+		this.jitterMillis = jitterMillis;
+		return this;
+	}
+
+	public StubServer threads(int threads) {
+		this.threads = threads;
+		return this;
+	}
+
+	public StubServer credentials(String username, String password) {
+		this.username = username;
+		this.password = password;
+		return this;
+	}
+
+	/**
+	 * Generates the data sets and starts listening on the loopback interface.
+	 *
+	 * @param port - the local port, or 0 for any free port.
+	 * @return this stub
+	 * @throws IOException if the port cannot be bound
+	 */
+	public synchronized StubServer start(int port) throws IOException {
+		if (server != null) {
+			throw new IllegalStateException("Stub server is already running on " + getBaseUrl());
+		}
+		data = new StubData(employees, jobTitles, subunits, reports, seed);
+		// The live demo always has custom field 1, which PutCustomField updates.
+		customFields.put(1, StubData.row("id", 1, "fieldName", "Blood Type", "fieldType", 1, "extraData",
+				"A+, A-, B+, B-, O+, O-, AB+, AB-", "screen", "personal"));
+
+		AtomicInteger threadNumber = new AtomicInteger();
+		executor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "stub-http-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 128);
+		server.createContext("/", this::handle);
+		server.setExecutor(executor);
+		server.start();
+		return this;
+	}
+
+	/**
+	 * Stops the server and its handler threads.
+	 */
+	public synchronized void stop() {
+		if (server != null) {
+			server.stop(0);
+			executor.shutdownNow();
+			server = null;
+		}
+	}
+
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * @return the value to use as <code>base.url</code>.
+	 */
+	public String getBaseUrl() {
+		return "http://localhost:" + getPort();
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			delay();
+			route(exchange);
+		} catch (BadRequestException e) {
+			sendJson(exchange, 400, error(400, e.getMessage()));
+		} catch (RuntimeException e) {
+			sendJson(exchange, 500, error(500, e.toString()));
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private void route(HttpExchange exchange) throws IOException {
+		String method = exchange.getRequestMethod();
+		String path = exchange.getRequestURI().getRawPath();
+		Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+
+		if (path.equals(ROOT + "/auth/login") && method.equals("GET")) {
+			loginPage(exchange);
+			return;
+		}
+		if (path.equals(ROOT + "/auth/validate") && method.equals("POST")) {
+			validate(exchange);
+			return;
+		}
+		if (!path.startsWith(API + "/")) {
+			sendJson(exchange, 404, error(404, "Not Found"));
+			return;
+		}
+		if (!sessions.contains(String.valueOf(cookie(exchange)))) {
+			sendJson(exchange, 401, error(401, "Session expired"));
+			return;
+		}
+
+		String resource = path.substring(API.length());
+		if (method.equals("GET")) {
+			switch (resource) {
+			case "/admin/employment-statuses":
+				sendJson(exchange, 200, page(data.employmentStatuses, query, 50));
+				return;
+			case "/admin/job-titles":
+				sendJson(exchange, 200, page(data.jobTitles, query, 50));
+				return;
+			case "/admin/subunits":
+				sendJson(exchange, 200, page(data.subunits, query, 0));
+				return;
+			case "/pim/employees":
+				sendJson(exchange, 200, page(data.employees, query, 50));
+				return;
+			case "/pim/reports/defined":
+				sendJson(exchange, 200, page(data.reports, query, 50));
+				return;
+			case "/leave/leave-types/eligible":
+				sendJson(exchange, 200, page(data.leaveTypes, query, 0));
+				return;
+			case "/admin/ldap-config":
+				sendJson(exchange, 200, StubData.object(ldapConfig));
+				return;
+			case "/pim/optional-field":
+				sendJson(exchange, 200, StubData.object(optionalFields));
+				return;
+			case "/pim/custom-fields":
+				List<byte[]> fields = new ArrayList<>();
+				for (Map<String, Object> field : customFields.values()) {
+					fields.add(StubData.toJson(field));
+				}
+				sendJson(exchange, 200, page(fields.toArray(new byte[0][]), query, 0));
+				return;
+			default:
+				break;
+			}
+		} else if (method.equals("PUT") && resource.equals("/admin/ldap-config")) {
+			Map<String, Object> body = readBody(exchange);
+			Object bindPassword = body.remove("bindUserPassword");
+			body.put("hasBindUserPassword", bindPassword != null && !String.valueOf(bindPassword).isEmpty());
+			ldapConfig = body;
+			sendJson(exchange, 200, StubData.object(body));
+			return;
+		} else if (method.equals("PUT") && resource.equals("/pim/optional-field")) {
+			Map<String, Object> updated = new LinkedHashMap<>(optionalFields);
+			updated.putAll(readBody(exchange));
+			optionalFields = updated;
+			sendJson(exchange, 200, StubData.object(updated));
+			return;
+		} else if (method.equals("POST") && resource.equals("/pim/custom-fields")) {
+			Map<String, Object> field = customField(nextCustomFieldId.getAndIncrement(), readBody(exchange));
+			customFields.put((Integer) field.get("id"), field);
+			sendJson(exchange, 200, StubData.object(field));
+			return;
+		} else if (method.equals("PUT") && resource.startsWith("/pim/custom-fields/")) {
+			Integer id = parseId(resource.substring("/pim/custom-fields/".length()));
+			if (id == null || !customFields.containsKey(id)) {
+				sendJson(exchange, 404, error(404, "Record Not Found"));
+				return;
+			}
+			Map<String, Object> field = customField(id, readBody(exchange));
+			customFields.put(id, field);
+			sendJson(exchange, 200, StubData.object(field));
+			return;
+		}
+		sendJson(exchange, 404, error(404, "Not Found"));
+	}
+
+	private void loginPage(HttpExchange exchange) throws IOException {
+		String session = UUID.randomUUID().toString();
+		exchange.getResponseHeaders().add("Set-Cookie", SESSION_COOKIE + "=" + session + "; path=/web; HttpOnly");
+		byte[] html = ("<!DOCTYPE html><html><body><auth-login :token=\"&quot;" + CSRF_TOKEN
+				+ "&quot;\" :login-logo-src=\"&quot;&quot;\"></auth-login></body></html>")
+				.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+		exchange.sendResponseHeaders(200, html.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(html);
+		}
+	}
+
+	private void validate(HttpExchange exchange) throws IOException {
+		Map<String, String> form = parseQuery(new String(readAll(exchange.getRequestBody()), StandardCharsets.UTF_8));
+		boolean accepted = CSRF_TOKEN.equals(form.get("_token")) && username.equals(form.get("username"))
+				&& password.equals(form.get("password"));
+		if (accepted) {
+			String session = UUID.randomUUID().toString();
+			sessions.add(session);
+			exchange.getResponseHeaders().add("Set-Cookie",
+					SESSION_COOKIE + "=" + session + "; path=/web; HttpOnly");
+			exchange.getResponseHeaders().set("Location", ROOT + "/dashboard/index");
+		} else {
+			exchange.getResponseHeaders().set("Location", ROOT + "/auth/login");
+		}
+		exchange.sendResponseHeaders(302, -1);
+	}
+
+	private void delay() {
+		long millis = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+		if (millis > 0) {
+			try {
+				Thread.sleep(millis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private static byte[] page(byte[][] rows, Map<String, String> query, int defaultLimit) {
+		Integer limit = parseId(query.get("limit"));
+		Integer offset = parseId(query.get("offset"));
+		return StubData.page(rows, offset != null ? offset : 0, limit != null ? limit : defaultLimit);
+	}
+
+	private static Map<String, Object> customField(int id, Map<String, Object> body) {
+		return StubData.row("id", id, "fieldName", body.get("fieldName"), "fieldType", body.get("fieldType"),
+				"extraData", body.get("extraData"), "screen", body.get("screen"));
+	}
+
+	private static Map<String, Object> defaultLdapConfig() {
+		return StubData.row("enable", false, "hostname", "localhost", "port", 389, "encryption", "none",
+				"ldapImplementation", "OpenLDAP", "bindAnonymously", true, "bindUserDN", null,
+				"hasBindUserPassword", false, "userLookupSettings", new ArrayList<>(), "dataMapping",
+				StubData.row("firstName", "givenName", "middleName", null, "lastName", "sn", "userStatus", null,
+						"workEmail", null, "employeeId", null),
+				"mergeLDAPUsersWithExistingSystemUsers", false, "syncInterval", 1);
+	}
+
+	private static byte[] error(int status, String message) {
+		return StubData.toJson(
+				StubData.row("error", StubData.row("status", String.valueOf(status), "message", message)));
+	}
+
+	private static void sendJson(HttpExchange exchange, int status, byte[] body) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+		byte[] body = readAll(exchange.getRequestBody());
+		if (body.length == 0) {
+			return new LinkedHashMap<>();
+		}
+		try {
+			return BODY_READER.readValue(body);
+		} catch (JsonProcessingException e) {
+			throw new BadRequestException("Invalid JSON body: " + e.getOriginalMessage());
+		}
+	}
+
+	private static byte[] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int read;
+		while ((read = in.read(buffer)) > 0) {
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+
+	private static String cookie(HttpExchange exchange) {
+		String header = exchange.getRequestHeaders().getFirst("Cookie");
+		if (header == null) {
+			return null;
+		}
+		for (String pair : header.split(";")) {
+			String trimmed = pair.trim();
+			if (trimmed.startsWith(SESSION_COOKIE + "=")) {
+				return trimmed.substring(SESSION_COOKIE.length() + 1);
+			}
+		}
+		return null;
+	}
+
+	private static Map<String, String> parseQuery(String query) {
+		Map<String, String> parameters = new HashMap<>();
+		if (query == null || query.isEmpty()) {
+			return parameters;
+		}
+		try {
+			for (String pair : query.split("&")) {
+				int equals = pair.indexOf('=');
+				String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), "UTF-8");
+				String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), "UTF-8");
+				parameters.putIfAbsent(name, value);
+			}
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+		return parameters;
+	}
+
+	private static Integer parseId(String value) {
+		if (value == null) {
+			return null;
+		}
+		try {
+			return Integer.valueOf(value.trim());
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	// A request the real API would answer with a 400.
+	private static final class BadRequestException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		BadRequestException(String message) {
+			super(message);
+		}
+	}
+}
@@ -0,0 +1,194 @@
+package coreUtilities.testutils;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class ResultJournalTest {
+
+	private Path directory;
+	private Path file;
+
+	@BeforeMethod
+	public void createDirectory() throws IOException {
+		directory = Files.createTempDirectory("journal-test");
+		file = directory.resolve("results.journal");
+	}
+
+	@AfterMethod
+	public void deleteDirectory() throws IOException {
+		try (Stream<Path> paths = Files.walk(directory)) {
+			for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+				Files.deleteIfExists(path);
+			}
+		}
+	}
+
+	@Test
+	public void appendedEntriesArePendingAfterReopen() throws IOException {
+		try (ResultJournal journal = ResultJournal.open(file)) {
+			assertTrue(journal.pending().isEmpty());
+			journal.append(json("first"), "host|1|0");
+			journal.append(json("second"), "host|2|0");
+			journal.sync();
+		}
+
+		try (ResultJournal journal = ResultJournal.open(file)) {
+			List<ResultJournal.Entry> pending = journal.pending();
+			assertEquals(texts(pending), Arrays.asList("first", "second"));
+			assertEquals(pending.get(0).context, "host|1|0");
+		}
+	}
+
+	@Test
+	public void acknowledgedEntriesAreNotReplayed() throws IOException {
+		try (ResultJournal journal = ResultJournal.open(file)) {
+			ResultJournal.Entry first = journal.append(json("first"), "a");
+			journal.append(json("second"), "b");
+			ResultJournal.Entry third = journal.append(json("third"), "c");
+			journal.acknowledge(Arrays.asList(first, third));
+		}
+
+		try (ResultJournal journal = ResultJournal.open(file)) {
+			assertEquals(texts(journal.pending()), Collections.singletonList("second"));
+		}
+	}
+
+	@Test
+	public void openCompactsToUnacknowledgedEntries() throws IOException {
+		try (ResultJournal journal = ResultJournal.open(file)) {
+			List<ResultJournal.Entry> entries = new ArrayList<>();
+			for (int i = 0; i < 50; i++) {
+				entries.add(journal.append(json("result " + i), "ctx"));
+			}
+			journal.acknowledge(entries.subList(0, 49));
+		}
+		long before = Files.size(file);
+
+		try (ResultJournal journal = ResultJournal.open(file)) {
+			assertEquals(texts(journal.pending()), Collections.singletonList("result 49"));
+		}
+		long after = Files.size(file);
+		assertTrue(after < before / 10, "compacted from " + before + " to " + after + " bytes");
+
+		// Entries appended after a compaction get ids that do not collide.
+		try (ResultJournal journal = ResultJournal.open(file)) {
+			ResultJournal.Entry added = journal.append(json("new"), "ctx");
+			assertNotEquals(added.getId(), journal.pending().get(0).getId());
+			journal.acknowledge(journal.pending());
+		}
+		try (ResultJournal journal = ResultJournal.open(file)) {
+			assertEquals(texts(journal.pending()), Collections.singletonList("new"));
+		}
+	}
+
+	@Test
+	public void tornTailIsDroppedAndJournalStaysUsable() throws IOException {
+		try (ResultJournal journal = ResultJournal.open(file)) {
+			journal.append(json("complete"), "a");
+			journal.append(json("torn"), "b");
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.truncate(channel.size() - 3);
+		}
+
+		try (ResultJournal journal = ResultJournal.open(file)) {
+			assertEquals(texts(journal.pending()), Collections.singletonList("complete"));
+			journal.append(json("after crash"), "c");
+		}
+		try (ResultJournal journal = ResultJournal.open(file)) {
+			assertEquals(texts(journal.pending()), Arrays.asList("complete", "after crash"));
+		}
+	}
+
+	@Test
+	public void undecodableEntryIsSkipped() throws IOException {
+		try (ResultJournal journal = ResultJournal.open(file)) {
+			journal.append(json("before"), "a");
+		}
+		// A record with a valid checksum whose payload is cut short.
+		byte[] payload = { 0, 40, 'x' };
+		appendRaw((byte) 1, 99, payload);
+		appendRaw((byte) 1, 100, entryPayload("c", json("after")));
+
+		try (ResultJournal journal = ResultJournal.open(file)) {
+			assertEquals(texts(journal.pending()), Arrays.asList("before", "after"));
+		}
+	}
+
+	@Test
+	public void lockedJournalFallsBackToOwnFileAndIsAdoptedLater() throws IOException {
+		ResultJournal first = ResultJournal.open(file);
+		ResultJournal second = ResultJournal.open(file);
+		try {
+			assertEquals(first.getFile(), file);
+			assertNotEquals(second.getFile(), file);
+			first.append(json("from first"), "a");
+			second.append(json("from second"), "b");
+		} finally {
+			first.close();
+			second.close();
+		}
+
+		try (ResultJournal journal = ResultJournal.open(file)) {
+			assertEquals(texts(journal.pending()), Arrays.asList("from first", "from second"));
+			assertTrue(Files.notExists(second.getFile()), "adopted journal is deleted");
+		}
+	}
+
+	private void appendRaw(byte type, long id, byte[] payload) throws IOException {
+		CRC32 crc = new CRC32();
+		crc.update(ByteBuffer.allocate(9).put(type).putLong(id).array());
+		crc.update(payload);
+		ByteBuffer record = ByteBuffer.allocate(1 + 8 + 4 + payload.length + 4);
+		record.put(type).putLong(id).putInt(payload.length).put(payload).putInt((int) crc.getValue());
+		record.flip();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+			channel.write(record);
+		}
+	}
+
+	private static byte[] entryPayload(String context, byte[] json) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeUTF(context);
+		out.writeInt(json.length);
+		out.write(json);
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	private static byte[] json(String text) {
+		return text.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static List<String> texts(List<ResultJournal.Entry> entries) {
+		List<String> texts = new ArrayList<>();
+		for (ResultJournal.Entry entry : entries) {
+			texts.add(new String(entry.json, StandardCharsets.UTF_8));
+		}
+		return texts;
+	}
+}
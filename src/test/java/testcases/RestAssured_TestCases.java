@@ -7,6 +7,8 @@ import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
 import rest.ApiUtil;
 import rest.CustomResponse;
+import rest.SessionStore;
+import restConfig.ConfigManager;
 
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
@@ -39,48 +41,40 @@ public class RestAssured_TestCases {
 	private String excelPath = System.getProperty("user.dir") + "\\src\\main\\resources\\TestData.xlsx";
 
 	/**
-	 * @BeforeClass method to perform login via Selenium and retrieve session cookie
-	 *              for authenticated API calls.
+	 * @BeforeClass method to perform login and retrieve session cookie for
+	 *              authenticated API calls.
 	 * 
-	 *              Steps: 1. Setup ChromeDriver using WebDriverManager. 2. Launch
-	 *              browser and open the OrangeHRM login page. 3. Perform login with
-	 *              provided username and password. 4. Wait for login to complete
-	 *              and extract the 'orangehrm' session cookie. 5. Store the cookie
-	 *              value to be used in API requests. 6. Quit the browser session.
+	 *              Steps: 1. Read base URL and credentials from the
+	 *              configuration. 2. Reuse the cached 'orangehrm' session cookie
+	 *              if the server still accepts it, otherwise log in over plain
+	 *              HTTP (login page, CSRF token, credential post) and cache the
+	 *              new cookie. 3. If the HTTP login fails, or 'login.mode' is set to
+	 *              'selenium', fall back to logging in through Chrome and reading
+	 *              the cookie from the browser. 4. Store the cookie value to be
+	 *              used in API requests.
 	 * 
 	 *              Throws: - InterruptedException if thread sleep is interrupted. -
 	 *              RuntimeException if the required session cookie is not found.
 	 */
 
-	@Test(priority = 0, groups = { "PL1" }, description = "Login to the application using Selenium and retrieve session cookie")
+	@Test(priority = 0, groups = { "PL1" }, description = "Login to the application and retrieve session cookie")
 	public void loginWithSeleniumAndGetCookie() throws InterruptedException {
-		WebDriverManager.chromedriver().setup();
-		WebDriver driver = new ChromeDriver();
-
 		apiUtil = new ApiUtil();
 		baseUrl = apiUtil.getBaseUrl();
 		username = apiUtil.getUsername();
 		password = apiUtil.getPassword();
 
-		driver.get(baseUrl + "/web/index.php/auth/login");
-		Thread.sleep(3000); // Wait for page load
-
-		// Login to the app
-		driver.findElement(By.name("username")).sendKeys(username);
-		driver.findElement(By.name("password")).sendKeys(password);
-		driver.findElement(By.cssSelector("button[type='submit']")).click();
-		Thread.sleep(6000); // Wait for login
-
-		// Extract cookie named "orangehrm"
-		Set<Cookie> cookies = driver.manage().getCookies();
-		for (Cookie cookie : cookies) {
-			if (cookie.getName().equals("orangehrm")) {
-				cookieValue = cookie.getValue();
-				break;
+		if (!"selenium".equalsIgnoreCase(ConfigManager.getProperty("login.mode"))) {
+			try {
+				cookieValue = SessionStore.getDefault().getCookie();
+			} catch (RuntimeException e) {
+				System.out.println("⚠️ HTTP login failed, falling back to Selenium: " + e.getMessage());
 			}
 		}
 
-		driver.quit();
+		if (cookieValue == null) {
+			cookieValue = loginWithSelenium();
+		}
 
 		if (cookieValue == null) {
 			throw new RuntimeException("orangehrm cookie not found after login");
@@ -424,6 +418,33 @@ public class RestAssured_TestCases {
 	}
 	/*----------------------Helper method----------------------------*/
 
+	private String loginWithSelenium() throws InterruptedException {
+		WebDriverManager.chromedriver().setup();
+		WebDriver driver = new ChromeDriver();
+
+		driver.get(baseUrl + "/web/index.php/auth/login");
+		Thread.sleep(3000); // Wait for page load
+
+		// Login to the app
+		driver.findElement(By.name("username")).sendKeys(username);
+		driver.findElement(By.name("password")).sendKeys(password);
+		driver.findElement(By.cssSelector("button[type='submit']")).click();
+		Thread.sleep(6000); // Wait for login
+
+		// Extract cookie named "orangehrm"
+		String sessionCookie = null;
+		Set<Cookie> cookies = driver.manage().getCookies();
+		for (Cookie cookie : cookies) {
+			if (cookie.getName().equals("orangehrm")) {
+				sessionCookie = cookie.getValue();
+				break;
+			}
+		}
+
+		driver.quit();
+		return sessionCookie;
+	}
+
 	private String formatFieldType(String value) {
 		// Handles float string like "0.0" -> "0"
 		try {
@@ -1,39 +1,48 @@
 package testcases;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.regex.Matcher;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 public class TestCodeValidator {
 
+	// Every source file is tokenized once and kept as a method index until the
+	// file changes on disk, so a validation is a map lookup plus set lookups.
+	private static final Map<String, SourceIndex> INDEXES = new ConcurrentHashMap<>();
+
+	private static final Set<String> NOT_METHODS = new HashSet<>(Arrays.asList("if", "for", "while", "switch",
+			"catch", "synchronized", "try", "return", "new", "throw", "else", "do", "assert"));
+	private static final Set<String> MODIFIERS = new HashSet<>(Arrays.asList("public", "protected", "private",
+			"static", "final", "abstract", "synchronized", "native", "strictfp", "default"));
+	private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_$][A-Za-z0-9_$]*");
+
 	// Method to validate if specific keywords are used in the method's source code
 	public static boolean validateTestMethodFromFile(String filePath, String methodName, List<String> keywords)
 			throws IOException {
-		// Read the content of the test class file
-		String fileContent = new String(Files.readAllBytes(Paths.get(filePath)));
-
-		// Extract the method body for the specified method using regex
-		String methodRegex = "(public\\s+CustomResponse\\s+" + methodName + "\\s*\\(.*?\\)\\s*\\{)([\\s\\S]*?)}";
-		Pattern methodPattern = Pattern.compile(methodRegex);
-		Matcher methodMatcher = methodPattern.matcher(fileContent);
+		MethodSource method = index(filePath).find(methodName, "CustomResponse");
 
-		if (methodMatcher.find()) {
-
-			String methodBody = fetchBody(filePath, methodName);
+		if (method != null) {
 
 			// Now we validate the method body for the required keywords
 			boolean allKeywordsPresent = true;
 
-			// Loop over the provided keywords and check if each one is present in the
-			// method body
+			// Loop over the provided keywords and check if each one is called in the
+			// method body; comments and string literals do not count
 			for (String keyword : keywords) {
-				Pattern keywordPattern = Pattern.compile("\\b" + keyword + "\\s*\\(");
-				if (!keywordPattern.matcher(methodBody).find()) {
+				if (!method.calls(keyword)) {
 					System.out.println("'" + keyword + "()' is missing in the method.");
 					allKeywordsPresent = false;
 				}
@@ -50,46 +59,258 @@ public class TestCodeValidator {
 	// This method takes the method name as an argument and returns its body as a
 	// String.
 	public static String fetchBody(String filePath, String methodName) {
-		StringBuilder methodBody = new StringBuilder();
-		boolean methodFound = false;
-		boolean inMethodBody = false;
-		int openBracesCount = 0;
-
-		try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-			String line;
-			while ((line = br.readLine()) != null) {
-				// Check if the method is found by matching method signature
-				if (line.contains("public CustomResponse " + methodName + "(")
-						|| line.contains("public String " + methodName + "(")) {
-					methodFound = true;
-				}
+		try {
+			SourceIndex index = index(filePath);
+			MethodSource method = index.find(methodName, "CustomResponse");
+			if (method == null) {
+				method = index.find(methodName, "String");
+			}
+			return method != null ? method.source : "";
+		} catch (IOException e) {
+			e.printStackTrace();
+			return "";
+		}
+	}
 
-				// Once the method is found, start capturing lines
-				if (methodFound) {
-					if (line.contains("{")) {
-						inMethodBody = true;
-						openBracesCount++;
-					}
+	// Returns the cached index of a file, re-reading it only when its
+	// modification time or size changed.
+	private static SourceIndex index(String filePath) throws IOException {
+		Path path = Paths.get(filePath);
+		BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+		long modified = attributes.lastModifiedTime().toMillis();
+		long size = attributes.size();
 
-					// Capture the method body
-					if (inMethodBody) {
-						methodBody.append(line).append("\n");
-					}
+		SourceIndex index = INDEXES.get(filePath);
+		if (index == null || index.modified != modified || index.size != size) {
+			String content = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+			index = new SourceIndex(modified, size, scan(content));
+			INDEXES.put(filePath, index);
+		}
+		return index;
+	}
+
+	// Single pass over the source: skips comments, string, text block and
+	// character literals, tracks braces, recognises method declarations as
+	// "name ( ... ) [throws ...] {" and records, for every method, each
+	// identifier that is followed by "(" inside its body.
+	private static Map<String, List<MethodSource>> scan(String src) {
+		Map<String, List<MethodSource>> methods = new HashMap<>();
+		List<String> tokens = new ArrayList<>();
+		List<Integer> offsets = new ArrayList<>();
+		List<OpenMethod> open = new ArrayList<>();
+		int depth = 0;
+		int length = src.length();
+		int i = 0;
 
-					// Check for closing braces to identify the end of the method
-					if (line.contains("}")) {
-						openBracesCount--;
-						if (openBracesCount == 0) {
-							break; // End of method body
-						}
+		while (i < length) {
+			char c = src.charAt(i);
+
+			if (Character.isWhitespace(c)) {
+				i++;
+			} else if (c == '/' && i + 1 < length && src.charAt(i + 1) == '/') {
+				i = src.indexOf('\n', i);
+				i = i < 0 ? length : i + 1;
+			} else if (c == '/' && i + 1 < length && src.charAt(i + 1) == '*') {
+				i = src.indexOf("*/", i + 2);
+				i = i < 0 ? length : i + 2;
+			} else if (c == '"' && src.startsWith("\"\"\"", i)) {
+				int start = i;
+				i = src.indexOf("\"\"\"", i + 3);
+				i = i < 0 ? length : i + 3;
+				tokens.add("\"");
+				offsets.add(start);
+			} else if (c == '"' || c == '\'') {
+				int start = i;
+				i++;
+				while (i < length && src.charAt(i) != c && src.charAt(i) != '\n') {
+					i += src.charAt(i) == '\\' ? 2 : 1;
+				}
+				i++;
+				tokens.add(String.valueOf(c));
+				offsets.add(start);
+			} else if (Character.isJavaIdentifierStart(c)) {
+				int start = i;
+				while (i < length && Character.isJavaIdentifierPart(src.charAt(i))) {
+					i++;
+				}
+				tokens.add(src.substring(start, i));
+				offsets.add(start);
+			} else {
+				if (c == '(' && !tokens.isEmpty() && isIdentifier(tokens.get(tokens.size() - 1))) {
+					String called = tokens.get(tokens.size() - 1);
+					for (OpenMethod method : open) {
+						method.calls.add(called);
+					}
+				} else if (c == '{') {
+					depth++;
+					OpenMethod method = declaration(src, tokens, offsets, depth);
+					if (method != null) {
+						open.add(method);
 					}
+				} else if (c == '}') {
+					if (!open.isEmpty() && open.get(open.size() - 1).depth == depth) {
+						OpenMethod method = open.remove(open.size() - 1);
+						MethodSource source = new MethodSource(method.name, method.returnType, method.isPublic,
+								src.substring(method.start, i + 1) + "\n", method.calls);
+						methods.computeIfAbsent(method.name, name -> new ArrayList<>()).add(source);
+					}
+					depth--;
 				}
+				tokens.add(String.valueOf(c));
+				offsets.add(i);
+				i++;
 			}
-		} catch (IOException e) {
-			e.printStackTrace();
 		}
+		return methods;
+	}
+
+	// Looks back from a "{" for "name ( ... ) [throws A, B]", preceded by a
+	// return type and modifiers rather than by "new" or a control keyword.
+	private static OpenMethod declaration(String src, List<String> tokens, List<Integer> offsets, int depth) {
+		int t = tokens.size() - 1;
+		while (t >= 0 && (isIdentifier(tokens.get(t)) || tokens.get(t).equals(".") || tokens.get(t).equals(","))) {
+			t--;
+		}
+		if (t >= 0 && tokens.get(t).equals("throws")) {
+			t--;
+		}
+		if (t < 0 || !tokens.get(t).equals(")")) {
+			return null;
+		}
+		for (int parens = 0; t >= 0; t--) {
+			if (tokens.get(t).equals(")")) {
+				parens++;
+			} else if (tokens.get(t).equals("(") && --parens == 0) {
+				break;
+			}
+		}
+		int nameToken = t - 1;
+		if (nameToken < 1 || !isIdentifier(tokens.get(nameToken)) || NOT_METHODS.contains(tokens.get(nameToken))
+				|| tokens.get(nameToken - 1).equals("new") || tokens.get(nameToken - 1).equals(".")) {
+			return null;
+		}
+
+		String returnType = returnType(tokens, nameToken - 1);
 
-		return methodBody.toString();
+		boolean isPublic = false;
+		int first = nameToken;
+		for (int m = nameToken - 1; m >= 0; m--) {
+			String token = tokens.get(m);
+			if (token.equals(";") || token.equals("{") || token.equals("}")) {
+				break;
+			}
+			isPublic |= token.equals("public");
+			first = m;
+		}
+		int start = src.lastIndexOf('\n', offsets.get(first)) + 1;
+		return new OpenMethod(tokens.get(nameToken), returnType, isPublic, start, depth);
 	}
 
-}
\ No newline at end of file
+	// Spells out the type that ends at token t, e.g. "CustomResponse",
+	// "List<CustomResponse>" or "byte[]"; null for a constructor.
+	private static String returnType(List<String> tokens, int t) {
+		int end = t;
+		while (t >= 1 && tokens.get(t).equals("]") && tokens.get(t - 1).equals("[")) {
+			t -= 2;
+		}
+		if (t >= 0 && tokens.get(t).equals(">")) {
+			for (int angles = 0; t >= 0; t--) {
+				if (tokens.get(t).equals(">")) {
+					angles++;
+				} else if (tokens.get(t).equals("<") && --angles == 0) {
+					break;
+				}
+			}
+			t--;
+		}
+		while (t >= 2 && tokens.get(t - 1).equals(".") && isIdentifier(tokens.get(t - 2))) {
+			t -= 2;
+		}
+		if (t < 0 || !isIdentifier(tokens.get(t)) || MODIFIERS.contains(tokens.get(t))) {
+			return null;
+		}
+
+		StringBuilder type = new StringBuilder();
+		for (int i = t; i <= end; i++) {
+			String token = tokens.get(i);
+			if (i > t && (isIdentifier(token) || token.equals("?"))
+					&& (isIdentifier(tokens.get(i - 1)) || tokens.get(i - 1).equals("?"))) {
+				type.append(' ');
+			}
+			type.append(token);
+			if (token.equals(",")) {
+				type.append(' ');
+			}
+		}
+		return type.toString();
+	}
+
+	private static boolean isIdentifier(String token) {
+		return Character.isJavaIdentifierStart(token.charAt(0)) && !token.equals("throws");
+	}
+
+	private static final class SourceIndex {
+		final long modified;
+		final long size;
+		final Map<String, List<MethodSource>> methods;
+
+		SourceIndex(long modified, long size, Map<String, List<MethodSource>> methods) {
+			this.modified = modified;
+			this.size = size;
+			this.methods = methods;
+		}
+
+		// The first public method of that name and return type, in source order.
+		MethodSource find(String name, String returnType) {
+			for (MethodSource method : methods.getOrDefault(name, Collections.emptyList())) {
+				if (method.isPublic && returnType.equals(method.returnType)) {
+					return method;
+				}
+			}
+			return null;
+		}
+	}
+
+	private static final class MethodSource {
+		final String name;
+		final String returnType;
+		final boolean isPublic;
+		final String source;
+		final Set<String> calledNames;
+
+		MethodSource(String name, String returnType, boolean isPublic, String source, Set<String> calledNames) {
+			this.name = name;
+			this.returnType = returnType;
+			this.isPublic = isPublic;
+			this.source = source;
+			this.calledNames = calledNames;
+		}
+
+		// Same rule as "\bkeyword\s*\(": identifiers are answered from the
+		// names collected during the scan; anything else falls back to a regex
+		// over the method source.
+		boolean calls(String keyword) {
+			if (IDENTIFIER.matcher(keyword).matches()) {
+				return calledNames.contains(keyword);
+			}
+			return Pattern.compile("\\b" + keyword + "\\s*\\(").matcher(source).find();
+		}
+	}
+
+	private static final class OpenMethod {
+		final String name;
+		final String returnType;
+		final boolean isPublic;
+		final int start;
+		final int depth;
+		final Set<String> calls = new HashSet<>();
+
+		OpenMethod(String name, String returnType, boolean isPublic, int start, int depth) {
+			this.name = name;
+			this.returnType = returnType;
+			this.isPublic = isPublic;
+			this.start = start;
+			this.depth = depth;
+		}
+	}
+}
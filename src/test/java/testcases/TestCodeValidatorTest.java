@@ -0,0 +1,221 @@
+package testcases;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TestCodeValidatorTest {
+
+	private static final String FIXTURE = String.join("\n",
+			"package fixture;",
+			"",
+			"public class Fixture {",
+			"",
+			"	// public CustomResponse commented(String endpoint) { given(); }",
+			"	/* public CustomResponse blockCommented() {",
+			"		given();",
+			"	} */",
+			"",
+			"	public CustomResponse plain(String endpoint) {",
+			"		String text = \"given() post( }\";",
+			"		char brace = '}';",
+			"		String block = \"\"\"",
+			"				} put( \" {",
+			"				\"\"\";",
+			"		Response response = given().cookie(\"orangehrm\", text).get(endpoint);",
+			"		return new CustomResponse(response);",
+			"	}",
+			"",
+			"	public <T> CustomResponse generic(Class<T> type) {",
+			"		Map<String, List<Integer>> values = new HashMap<>();",
+			"		values.forEach((key, value) -> {",
+			"			post(key);",
+			"		});",
+			"		return null;",
+			"	}",
+			"",
+			"	public List<CustomResponse> many() {",
+			"		return put();",
+			"	}",
+			"",
+			"	public CustomResponse[] array() {",
+			"		return put();",
+			"	}",
+			"",
+			"	public CustomResponse anonymous() {",
+			"		Runnable task = new Runnable() {",
+			"			@Override",
+			"			public void run() {",
+			"				cookie();",
+			"			}",
+			"		};",
+			"		return response();",
+			"	}",
+			"",
+			"	public String label() throws IllegalStateException {",
+			"		return \"label\";",
+			"	}",
+			"}",
+			"");
+
+	// validateTestMethodFromFile(apiUtilPath, "Name", List.of("a", "b", ...))
+	private static final Pattern VALIDATION = Pattern
+			.compile("validateTestMethodFromFile\\(\\s*apiUtilPath,\\s*\"(\\w+)\",\\s*List\\.of\\(([^)]*)\\)\\)");
+	private static final Pattern QUOTED = Pattern.compile("\"([^\"]*)\"");
+
+	private Path directory;
+	private String fixture;
+
+	@BeforeMethod
+	public void writeFixture() throws IOException {
+		directory = Files.createTempDirectory("validator-test");
+		Path file = directory.resolve("Fixture.java");
+		Files.write(file, FIXTURE.getBytes(StandardCharsets.UTF_8));
+		fixture = file.toString();
+	}
+
+	@AfterMethod
+	public void deleteFixture() throws IOException {
+		Files.deleteIfExists(Paths.get(fixture));
+		Files.deleteIfExists(directory);
+	}
+
+	@Test
+	public void commentedMethodsAreNotFound() throws IOException {
+		assertFalse(TestCodeValidator.validateTestMethodFromFile(fixture, "commented", keywords("given")));
+		assertFalse(TestCodeValidator.validateTestMethodFromFile(fixture, "blockCommented", keywords("given")));
+		assertEquals(TestCodeValidator.fetchBody(fixture, "commented"), "");
+	}
+
+	@Test
+	public void callsInsideLiteralsDoNotCount() throws IOException {
+		assertTrue(TestCodeValidator.validateTestMethodFromFile(fixture, "plain",
+				keywords("given", "cookie", "get", "CustomResponse")));
+		assertFalse(TestCodeValidator.validateTestMethodFromFile(fixture, "plain", keywords("post")));
+		assertFalse(TestCodeValidator.validateTestMethodFromFile(fixture, "plain", keywords("put")));
+		String body = TestCodeValidator.fetchBody(fixture, "plain");
+		assertTrue(body.endsWith("return new CustomResponse(response);\n\t}\n"), body);
+	}
+
+	@Test
+	public void genericMethodIsFoundAndLambdaCallsCount() throws IOException {
+		assertTrue(TestCodeValidator.validateTestMethodFromFile(fixture, "generic", keywords("forEach", "post")));
+	}
+
+	@Test
+	public void otherReturnTypesAreNotCustomResponse() throws IOException {
+		assertFalse(TestCodeValidator.validateTestMethodFromFile(fixture, "many", keywords("put")));
+		assertFalse(TestCodeValidator.validateTestMethodFromFile(fixture, "array", keywords("put")));
+		assertEquals(TestCodeValidator.fetchBody(fixture, "many"), "");
+	}
+
+	@Test
+	public void anonymousClassBelongsToEnclosingMethod() throws IOException {
+		assertTrue(TestCodeValidator.validateTestMethodFromFile(fixture, "anonymous",
+				keywords("cookie", "response")));
+		assertFalse(TestCodeValidator.validateTestMethodFromFile(fixture, "run", keywords("cookie")));
+	}
+
+	@Test
+	public void fetchBodyFallsBackToStringMethods() {
+		String body = TestCodeValidator.fetchBody(fixture, "label");
+		assertTrue(body.startsWith("\tpublic String label() throws IllegalStateException {"), body);
+		assertTrue(body.contains("return \"label\";"), body);
+	}
+
+	@Test
+	public void sameVerdictsAsRegexOnRestAssuredTestCases() throws IOException {
+		Path root = Paths.get(System.getProperty("user.dir"));
+		Path testCasesFile = root.resolve(Paths.get("src", "test", "java", "testcases", "RestAssured_TestCases.java"));
+		String testCases = new String(Files.readAllBytes(testCasesFile), StandardCharsets.UTF_8);
+		String apiUtil = root.resolve(Paths.get("src", "main", "java", "rest", "ApiUtil.java")).toString();
+
+		Matcher validation = VALIDATION.matcher(testCases);
+		int checked = 0;
+		while (validation.find()) {
+			String methodName = validation.group(1);
+			List<String> keywords = new ArrayList<>();
+			Matcher quoted = QUOTED.matcher(validation.group(2));
+			while (quoted.find()) {
+				keywords.add(quoted.group(1));
+			}
+			for (List<String> checkedKeywords : Arrays.asList(keywords, keywords("delete"))) {
+				assertEquals(TestCodeValidator.validateTestMethodFromFile(apiUtil, methodName, checkedKeywords),
+						regexVerdict(apiUtil, methodName, checkedKeywords), methodName + " " + checkedKeywords);
+			}
+			checked++;
+		}
+		assertEquals(checked, 10, "validations found in RestAssured_TestCases");
+	}
+
+	private static List<String> keywords(String... keywords) {
+		return Collections.unmodifiableList(Arrays.asList(keywords));
+	}
+
+	// The regex and line scan TestCodeValidator used before it indexed sources.
+	private static boolean regexVerdict(String filePath, String methodName, List<String> keywords)
+			throws IOException {
+		String fileContent = new String(Files.readAllBytes(Paths.get(filePath)));
+		String methodRegex = "(public\\s+CustomResponse\\s+" + methodName + "\\s*\\(.*?\\)\\s*\\{)([\\s\\S]*?)}";
+		if (!Pattern.compile(methodRegex).matcher(fileContent).find()) {
+			return false;
+		}
+		String methodBody = regexBody(filePath, methodName);
+		for (String keyword : keywords) {
+			if (!Pattern.compile("\\b" + keyword + "\\s*\\(").matcher(methodBody).find()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String regexBody(String filePath, String methodName) throws IOException {
+		StringBuilder methodBody = new StringBuilder();
+		boolean methodFound = false;
+		boolean inMethodBody = false;
+		int openBracesCount = 0;
+		try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
+			String line;
+			while ((line = br.readLine()) != null) {
+				if (line.contains("public CustomResponse " + methodName + "(")
+						|| line.contains("public String " + methodName + "(")) {
+					methodFound = true;
+				}
+				if (methodFound) {
+					if (line.contains("{")) {
+						inMethodBody = true;
+						openBracesCount++;
+					}
+					if (inMethodBody) {
+						methodBody.append(line).append("\n");
+					}
+					if (line.contains("}")) {
+						openBracesCount--;
+						if (openBracesCount == 0) {
+							break;
+						}
+					}
+				}
+			}
+		}
+		return methodBody.toString();
+	}
+}